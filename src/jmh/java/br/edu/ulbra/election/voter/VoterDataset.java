@@ -0,0 +1,74 @@
+package br.edu.ulbra.election.voter;
+
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class VoterDataset {
+
+	public static final String PASSWORD = "benchmark";
+
+	private static final int INSERT_CHUNK = 10000;
+
+	@Param({"1000", "100000", "1000000"})
+	public int voters;
+
+	private ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = new SpringApplicationBuilder(VoterApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:voter-benchmark-" + voters + ";DB_CLOSE_DELAY=-1",
+						"--spring.jpa.properties.hibernate.show_sql=false",
+						"--spring.h2.console.enabled=false",
+						"--token.expire-time-millis=86400000",
+						"--logging.level.root=WARN");
+
+		String password = new BCryptPasswordEncoder().encode(PASSWORD);
+		VoterJdbcRepository voterJdbcRepository = context.getBean(VoterJdbcRepository.class);
+		List<Voter> chunk = new ArrayList<>(INSERT_CHUNK);
+		for (int i = 1; i <= voters; i++) {
+			Voter voter = new Voter();
+			voter.setEmail(email(i));
+			voter.setName("Voter Number " + i);
+			voter.setPassword(password);
+			chunk.add(voter);
+			if (chunk.size() == INSERT_CHUNK || i == voters) {
+				voterJdbcRepository.insertAll(chunk);
+				chunk.clear();
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	public String randomEmail() {
+		return email(ThreadLocalRandom.current().nextInt(voters) + 1);
+	}
+
+	public static String email(int i) {
+		return "voter" + i + "@ulbra.edu.br";
+	}
+}
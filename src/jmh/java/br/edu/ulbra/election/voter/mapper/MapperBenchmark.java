@@ -0,0 +1,70 @@
+package br.edu.ulbra.election.voter.mapper;
+
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+	private static final Type VOTER_OUTPUT_LIST_TYPE = new TypeToken<List<VoterOutput>>() {
+	}.getType();
+
+	@Param({"1", "50", "500"})
+	private int size;
+
+	private ModelMapper modelMapper;
+	private Voter voter;
+	private List<Voter> voters;
+
+	@Setup
+	public void setup() {
+		modelMapper = new ModelMapper();
+		voters = new ArrayList<>(size);
+		for (long i = 1; i <= size; i++) {
+			Voter v = new Voter();
+			v.setId(i);
+			v.setEmail("voter" + i + "@ulbra.edu.br");
+			v.setName("Voter Number " + i);
+			v.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+			voters.add(v);
+		}
+		voter = voters.get(0);
+	}
+
+	@Benchmark
+	public VoterOutput modelMapperSingle() {
+		return modelMapper.map(voter, VoterOutput.class);
+	}
+
+	@Benchmark
+	public VoterOutput voterMapperSingle() {
+		return VoterMapper.toOutput(voter);
+	}
+
+	@Benchmark
+	public List<VoterOutput> modelMapperList() {
+		return modelMapper.map(voters, VOTER_OUTPUT_LIST_TYPE);
+	}
+
+	@Benchmark
+	public List<VoterOutput> voterMapperList() {
+		return VoterMapper.toOutputList(voters);
+	}
+}
@@ -0,0 +1,58 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.VoterDataset;
+import br.edu.ulbra.election.voter.cache.TokenCache;
+import br.edu.ulbra.election.voter.input.v1.LoginInput;
+import br.edu.ulbra.election.voter.output.v1.LoginOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoginServiceBenchmark {
+
+	private LoginService loginService;
+	private TokenCache tokenCache;
+	private LoginInput loginInput;
+	private String token;
+	private Long voterId;
+
+	@Setup(Level.Trial)
+	public void setup(VoterDataset dataset) {
+		loginService = dataset.getBean(LoginService.class);
+		tokenCache = dataset.getBean(TokenCache.class);
+
+		loginInput = new LoginInput();
+		loginInput.setEmail(VoterDataset.email(dataset.voters));
+		loginInput.setPassword(VoterDataset.PASSWORD);
+
+		token = loginService.login(loginInput).getToken();
+		voterId = loginService.checkToken(token).getId();
+	}
+
+	@Benchmark
+	public LoginOutput login() {
+		return loginService.login(loginInput);
+	}
+
+	@Benchmark
+	public VoterOutput checkTokenCached() {
+		return loginService.checkToken(token);
+	}
+
+	@Benchmark
+	public VoterOutput checkTokenUncached() {
+		tokenCache.evictVoter(voterId);
+		return loginService.checkToken(token);
+	}
+}
@@ -0,0 +1,56 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.VoterDataset;
+import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.repository.VoterRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VoterServiceBenchmark {
+
+	private VoterDataset dataset;
+	private VoterService voterService;
+	private VoterRepository voterRepository;
+	private VoterInput voterInput;
+
+	@Setup(Level.Trial)
+	public void setup(VoterDataset dataset) {
+		this.dataset = dataset;
+		voterService = dataset.getBean(VoterService.class);
+		voterRepository = dataset.getBean(VoterRepository.class);
+
+		voterInput = new VoterInput();
+		voterInput.setEmail("new.voter@ulbra.edu.br");
+		voterInput.setName("New Voter");
+		voterInput.setPassword(VoterDataset.PASSWORD);
+		voterInput.setPasswordConfirm(VoterDataset.PASSWORD);
+	}
+
+	@Benchmark
+	public VoterInput validateInput() {
+		voterService.validateInput(voterInput, false, voterRepository);
+		return voterInput;
+	}
+
+	@Benchmark
+	public boolean verifyEmailExisting() {
+		return Voter.verifyEmail(dataset.randomEmail(), voterRepository);
+	}
+
+	@Benchmark
+	public boolean verifyEmailMissing() {
+		return Voter.verifyEmail(voterInput.getEmail(), voterRepository);
+	}
+}
@@ -0,0 +1,53 @@
+package br.edu.ulbra.election.voter.api.v1;
+
+import br.edu.ulbra.election.voter.output.v1.GenericOutput;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+final class AsyncSupport {
+
+	static final String MESSAGE_STILL_RUNNING = "Request still running, read the voter back before retrying";
+
+	private AsyncSupport() {
+	}
+
+	// the timeout is per request, so it never applies to the streaming endpoints; on expiry Spring MVC answers 503.
+	// Failures are passed on unwrapped, so the error response is the same as the one from the synchronous endpoint
+	static <T> DeferredResult<T> supply(Supplier<T> supplier, Executor executor, long timeoutMillis) {
+		DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+		executor.execute(() -> complete(result, supplier));
+		return result;
+	}
+
+	// like supply, but a 503 tells the client the write can be retried, which is only true when it never ran. A write
+	// still queued at the timeout is dropped and answers 503; one already running may yet commit, so it answers 202
+	// and a retried create would otherwise fail with a duplicate e-mail
+	static <T> DeferredResult<T> write(Supplier<T> supplier, Executor executor, long timeoutMillis) {
+		DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+		AtomicBoolean claimed = new AtomicBoolean();
+		result.onTimeout(() -> {
+			if (!claimed.compareAndSet(false, true)) {
+				result.setErrorResult(ResponseEntity.status(HttpStatus.ACCEPTED).body(new GenericOutput(MESSAGE_STILL_RUNNING)));
+			}
+		});
+		executor.execute(() -> {
+			if (claimed.compareAndSet(false, true)) {
+				complete(result, supplier);
+			}
+		});
+		return result;
+	}
+
+	private static <T> void complete(DeferredResult<T> result, Supplier<T> supplier) {
+		try {
+			result.setResult(supplier.get());
+		} catch (Throwable e) {
+			result.setErrorResult(e);
+		}
+	}
+}
@@ -1,11 +1,20 @@
 package br.edu.ulbra.election.voter.api.v1;
 
+import br.edu.ulbra.election.voter.config.AsyncConfig;
 import br.edu.ulbra.election.voter.input.v1.LoginInput;
+import br.edu.ulbra.election.voter.output.v1.GenericOutput;
 import br.edu.ulbra.election.voter.output.v1.LoginOutput;
 import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import br.edu.ulbra.election.voter.ratelimit.LoginThrottle;
 import br.edu.ulbra.election.voter.service.LoginService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.ExecutorService;
 
 //@RestController("/login/v1")
 
@@ -15,18 +24,40 @@ public class LoginApi {
 
     private final LoginService loginService;
 
+    private final ExecutorService loginExecutor;
+
+    private final LoginThrottle loginThrottle;
+
+    private final long asyncTimeoutMillis;
+
     @Autowired
-    public LoginApi(LoginService loginService){
+    public LoginApi(LoginService loginService, @Qualifier(AsyncConfig.LOGIN_EXECUTOR) ExecutorService loginExecutor,
+                    LoginThrottle loginThrottle, @Value("${async.request-timeout-millis:10000}") long asyncTimeoutMillis){
         this.loginService = loginService;
+        this.loginExecutor = loginExecutor;
+        this.loginThrottle = loginThrottle;
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
     }
 
     @PostMapping("/")
-    public LoginOutput login(@RequestBody LoginInput loginInput){
+    public LoginOutput login(@RequestBody LoginInput loginInput, HttpServletRequest request){
+        loginThrottle.check(request.getRemoteAddr(), loginInput.getEmail());
         return loginService.login(loginInput);
     }
 
+    @PostMapping("/async")
+    public DeferredResult<LoginOutput> loginAsync(@RequestBody LoginInput loginInput, HttpServletRequest request){
+        loginThrottle.check(request.getRemoteAddr(), loginInput.getEmail());
+        return AsyncSupport.supply(() -> loginService.login(loginInput), loginExecutor, asyncTimeoutMillis);
+    }
+
     @GetMapping("/check/{token}")
     public VoterOutput checkToken(@PathVariable(value = "token") String token){
         return loginService.checkToken(token);
     }
+
+    @PostMapping("/logout/{token}")
+    public GenericOutput logout(@PathVariable(value = "token") String token){
+        return loginService.logout(token);
+    }
 }
@@ -1,24 +1,60 @@
 package br.edu.ulbra.election.voter.api.v1;
 
+import br.edu.ulbra.election.voter.config.AsyncConfig;
 import br.edu.ulbra.election.voter.input.v1.VoterInput;
 import br.edu.ulbra.election.voter.output.v1.GenericOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterChangePageOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterImportOutput;
 import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterPageOutput;
+import br.edu.ulbra.election.voter.service.VoterChangeStream;
+import br.edu.ulbra.election.voter.service.VoterExportService;
+import br.edu.ulbra.election.voter.service.VoterImportService;
 import br.edu.ulbra.election.voter.service.VoterService;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/v1/voter")
 public class VoterApi {
 
+	private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	private static final String TEXT_CSV_VALUE = "text/csv";
+	private static final String APPLICATION_GZIP_VALUE = "application/gzip";
+	private static final String CHANGE_SEQUENCE_HEADER = "X-Change-Sequence";
+	private static final String NOTES_ASYNC_WRITE = "On timeout answers 503 if the write never started, so it is safe to retry, "
+			+ "and 202 if it was still running and may yet be applied";
+
 	private final VoterService voterService;
+	private final VoterImportService voterImportService;
+	private final VoterChangeStream voterChangeStream;
+	private final VoterExportService voterExportService;
+	private final ExecutorService voterExecutor;
+	private final long asyncTimeoutMillis;
 
 	@Autowired
-	public VoterApi(VoterService voterService) {
+	public VoterApi(VoterService voterService, VoterImportService voterImportService, VoterChangeStream voterChangeStream,
+					VoterExportService voterExportService, @Qualifier(AsyncConfig.VOTER_EXECUTOR) ExecutorService voterExecutor,
+					@Value("${async.request-timeout-millis:10000}") long asyncTimeoutMillis) {
 		this.voterService = voterService;
+		this.voterImportService = voterImportService;
+		this.voterChangeStream = voterChangeStream;
+		this.voterExportService = voterExportService;
+		this.voterExecutor = voterExecutor;
+		this.asyncTimeoutMillis = asyncTimeoutMillis;
 	}
 
 	@GetMapping("/")
@@ -27,6 +63,54 @@ public class VoterApi {
 		return voterService.getAll();
 	}
 
+	@GetMapping("/page")
+	@ApiOperation(value = "Get a page of voters after the given id")
+	public VoterPageOutput getPage(@RequestParam(name = "after", required = false) Long after,
+								   @RequestParam(name = "size", required = false) Integer size) {
+		return voterService.getPage(after, size);
+	}
+
+	@GetMapping("/search")
+	@ApiOperation(value = "Search voters by name prefix (default) or by case-insensitive contains")
+	public List<VoterOutput> search(@RequestParam(name = "name") String name,
+									@RequestParam(name = "match", required = false) String match,
+									@RequestParam(name = "page", required = false) Integer page,
+									@RequestParam(name = "size", required = false) Integer size) {
+		return voterService.search(name, match, page, size);
+	}
+
+	@GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+	@ApiOperation(value = "Stream all voters as newline delimited JSON; X-Change-Sequence is the change to resume from")
+	public void stream(HttpServletResponse response) throws IOException {
+		// written on the request thread, like /export, so no async timeout can cut a large roll short
+		response.setHeader(CHANGE_SEQUENCE_HEADER, Long.toString(voterService.getChangeSequence()));
+		response.setContentType(APPLICATION_NDJSON_VALUE);
+		voterService.streamAll(response.getOutputStream());
+	}
+
+	@GetMapping("/export")
+	@ApiOperation(value = "Export all voters as CSV (id,email,name), optionally gzipped")
+	public void export(@RequestParam(name = "gzip", required = false, defaultValue = "false") boolean gzip,
+					   HttpServletResponse response) throws IOException {
+		response.setContentType(gzip ? APPLICATION_GZIP_VALUE : TEXT_CSV_VALUE + ";charset=UTF-8");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"voters.csv" + (gzip ? ".gz" : "") + "\"");
+		voterExportService.exportCsv(response.getOutputStream(), gzip);
+	}
+
+	@GetMapping("/changes")
+	@ApiOperation(value = "Get voter changes after the given sequence")
+	public VoterChangePageOutput getChanges(@RequestParam(name = "after", required = false) Long after,
+											@RequestParam(name = "size", required = false) Integer size) {
+		return voterService.getChanges(after, size);
+	}
+
+	@GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@ApiOperation(value = "Tail voter changes after the given sequence as server-sent events")
+	public SseEmitter streamChanges(@RequestParam(name = "after", required = false) Long after,
+									@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+		return voterChangeStream.subscribe(lastEventId != null ? lastEventId : after == null ? 0L : after);
+	}
+
 	@GetMapping("/{voterId}")
 	@ApiOperation(value = "Get voter by Id")
 	public VoterOutput getById(@PathVariable(name = "voterId") Long voterId) {
@@ -39,16 +123,58 @@ public class VoterApi {
 		return voterService.create(voterInput);
 	}
 
+	@PostMapping("/async")
+	@ApiOperation(value = "Create new voter without holding a request thread", notes = NOTES_ASYNC_WRITE)
+	public DeferredResult<VoterOutput> createAsync(@RequestBody VoterInput voterInput) {
+		return AsyncSupport.write(() -> voterService.create(voterInput), voterExecutor, asyncTimeoutMillis);
+	}
+
+	@PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+	@ApiOperation(value = "Import voters from CSV lines (email,name,password)")
+	public VoterImportOutput importCsv(InputStream body) {
+		return voterImportService.importVoters(body, VoterImportService.Format.CSV);
+	}
+
+	@PostMapping(value = "/import", consumes = APPLICATION_NDJSON_VALUE)
+	@ApiOperation(value = "Import voters from newline delimited JSON")
+	public VoterImportOutput importNdjson(InputStream body) {
+		return voterImportService.importVoters(body, VoterImportService.Format.NDJSON);
+	}
+
 	@PutMapping("/{voterId}")
 	@ApiOperation(value = "Update voter")
 	public VoterOutput update(@PathVariable Long voterId, @RequestBody VoterInput voterInput) {
 		return voterService.update(voterId, voterInput);
 	}
 
+	@PatchMapping("/{voterId}")
+	@ApiOperation(value = "Update only the supplied voter fields")
+	public VoterOutput patch(@PathVariable Long voterId, @RequestBody VoterInput voterInput) {
+		return voterService.patch(voterId, voterInput);
+	}
+
+	@PutMapping("/async/{voterId}")
+	@ApiOperation(value = "Update voter without holding a request thread", notes = NOTES_ASYNC_WRITE)
+	public DeferredResult<VoterOutput> updateAsync(@PathVariable Long voterId, @RequestBody VoterInput voterInput) {
+		return AsyncSupport.write(() -> voterService.update(voterId, voterInput), voterExecutor, asyncTimeoutMillis);
+	}
+
 	@DeleteMapping("/{voterId}")
 	@ApiOperation(value = "Delete voter")
 	public GenericOutput delete(@PathVariable Long voterId) {
 		return voterService.delete(voterId);
 	}
 
+	@DeleteMapping("/async/{voterId}")
+	@ApiOperation(value = "Delete voter without holding a request thread", notes = NOTES_ASYNC_WRITE)
+	public DeferredResult<GenericOutput> deleteAsync(@PathVariable Long voterId) {
+		return AsyncSupport.write(() -> voterService.delete(voterId), voterExecutor, asyncTimeoutMillis);
+	}
+
+	@DeleteMapping("/")
+	@ApiOperation(value = "Delete voters in bulk")
+	public GenericOutput deleteAll(@RequestBody List<Long> voterIds) {
+		return voterService.deleteAll(voterIds);
+	}
+
 }
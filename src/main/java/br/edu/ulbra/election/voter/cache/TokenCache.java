@@ -0,0 +1,142 @@
+package br.edu.ulbra.election.voter.cache;
+
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class TokenCache {
+
+    private static final String CACHE_NAME = "token";
+
+    // longer than any token lookup takes; a lookup that started earlier than this is not cached
+    private static final long EVICTION_RETENTION_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Cache<String, Entry> cache;
+
+    // a voter has a single token, so eviction by voter is one lookup instead of a scan
+    private final ConcurrentMap<Long, String> tokensByVoter = new ConcurrentHashMap<>();
+
+    // when each voter was last evicted, so a lookup that read the database before that can tell its result is stale
+    private final Cache<Long, Long> evictions = Caffeine.newBuilder()
+            .expireAfterWrite(EVICTION_RETENTION_NANOS, TimeUnit.NANOSECONDS)
+            .build();
+
+    private final Counter invalidations;
+
+    @Autowired
+    public TokenCache(@Value("${token.cache.maximum-size:10000}") long maximumSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .removalListener((String token, Entry entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        tokensByVoter.remove(entry.voterOutput.getId(), token);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.invalidations = Counter.builder("cache.invalidations")
+                .tag("cache", CACHE_NAME)
+                .description("Entries removed because the voter logged in again, was updated or was deleted")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public VoterOutput get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        return entry == null ? null : entry.voterOutput;
+    }
+
+    /**
+     * Marks the start of a database lookup whose result will be handed to {@link #put}. The voter is not known until
+     * the lookup returns, so this is a point in time that {@link #put} compares with that voter's last eviction.
+     */
+    public long beginLookup() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Caches the result of a lookup started at {@code lookupStarted}, unless the voter was evicted since then: the
+     * lookup may have read the token before a login or logout replaced it.
+     */
+    public void put(String token, VoterOutput voterOutput, Date expireDate, long lookupStarted) {
+        Long voterId = voterOutput.getId();
+        if (expireDate.getTime() <= System.currentTimeMillis() || evictedSince(voterId, lookupStarted)) {
+            return;
+        }
+        cache.put(token, new Entry(voterOutput, expireDate.getTime()));
+        String previous = tokensByVoter.put(voterId, token);
+        if (previous != null && !previous.equals(token)) {
+            cache.invalidate(previous);
+        }
+        // an eviction that ran between the check and the insert did not see this token, so undo it here
+        if (evictedSince(voterId, lookupStarted)) {
+            tokensByVoter.remove(voterId, token);
+            cache.invalidate(token);
+        }
+    }
+
+    public void evictVoter(Long voterId) {
+        if (voterId == null) {
+            return;
+        }
+        // recorded before the removal, so a concurrent put either sees it or has its token removed below
+        evictions.put(voterId, System.nanoTime());
+        String token = tokensByVoter.remove(voterId);
+        if (token != null && cache.asMap().remove(token) != null) {
+            invalidations.increment();
+        }
+    }
+
+    private boolean evictedSince(Long voterId, long lookupStarted) {
+        if (System.nanoTime() - lookupStarted >= EVICTION_RETENTION_NANOS) {
+            // the eviction record may already be gone
+            return true;
+        }
+        Long evicted = evictions.getIfPresent(voterId);
+        return evicted != null && evicted - lookupStarted >= 0;
+    }
+
+    private static final class Entry {
+        private final VoterOutput voterOutput;
+        private final long expireAtMillis;
+
+        private Entry(VoterOutput voterOutput, long expireAtMillis) {
+            this.voterOutput = voterOutput;
+            this.expireAtMillis = expireAtMillis;
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry value, long currentTime) {
+            long remainingMillis = value.expireAtMillis - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0L));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,29 +1,120 @@
 package br.edu.ulbra.election.voter.client;
 
+import br.edu.ulbra.election.voter.config.VoteClientConfig;
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerOpenException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
 public class VoteClientService {
 
+	private static final String MESSAGE_UNAVAILABLE = "Vote service unavailable";
+
 	private final VoteClient voteClient;
 
+	private final CircuitBreaker circuitBreaker;
+
+	private final Bulkhead bulkhead;
+
+	private final Cache<Long, Boolean> votersWithVotes;
+
+	private final int batchSize;
+
 	@Autowired
-	public VoteClientService(VoteClient voteClient) {
+	public VoteClientService(VoteClient voteClient,
+							 CircuitBreakerRegistry circuitBreakerRegistry,
+							 BulkheadRegistry bulkheadRegistry,
+							 @Value("${vote-service.batch-size:500}") int batchSize,
+							 @Value("${vote-service.voted-cache.maximum-size:100000}") long cacheMaximumSize,
+							 @Value("${vote-service.voted-cache.expire-after-write-seconds:300}") long cacheExpireSeconds) {
 		this.voteClient = voteClient;
+		this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(VoteClientConfig.VOTE_SERVICE);
+		this.bulkhead = bulkheadRegistry.bulkhead(VoteClientConfig.VOTE_SERVICE);
+		this.batchSize = batchSize;
+		this.votersWithVotes = Caffeine.newBuilder()
+				.maximumSize(cacheMaximumSize)
+				.expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS)
+				.build();
 	}
 
 	public Boolean verifyVoter(Long id) {
-		return this.voteClient.verificaVoter(id);
+		if (votersWithVotes.getIfPresent(id) != null) {
+			return true;
+		}
+		Boolean voted = call(() -> this.voteClient.verificaVoter(id));
+		if (Boolean.TRUE.equals(voted)) {
+			votersWithVotes.put(id, Boolean.TRUE);
+		}
+		return voted;
+	}
+
+	public Set<Long> findVotersWithVotes(Collection<Long> ids) {
+		Set<Long> result = new HashSet<>();
+		List<Long> unknown = new ArrayList<>();
+		for (Long id : new LinkedHashSet<>(ids)) {
+			if (votersWithVotes.getIfPresent(id) != null) {
+				result.add(id);
+			} else {
+				unknown.add(id);
+			}
+		}
+
+		for (int from = 0; from < unknown.size(); from += batchSize) {
+			List<Long> batch = unknown.subList(from, Math.min(from + batchSize, unknown.size()));
+			Set<Long> voted = call(() -> this.voteClient.findVotersWithVotes(batch));
+			if (voted != null) {
+				for (Long id : voted) {
+					votersWithVotes.put(id, Boolean.TRUE);
+				}
+				result.addAll(voted);
+			}
+		}
+		return result;
+	}
+
+	public CircuitBreaker.State getCircuitBreakerState() {
+		return circuitBreaker.getState();
+	}
+
+	private <T> T call(Supplier<T> supplier) {
+		Supplier<T> guarded = Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, supplier));
+		try {
+			return guarded.get();
+		} catch (CircuitBreakerOpenException | BulkheadFullException e) {
+			throw new ServiceUnavailableException(MESSAGE_UNAVAILABLE);
+		}
 	}
 
 	@FeignClient(value = "vote-service", url = "${url.vote-service}")
-	private interface VoteClient {
+	interface VoteClient {
 
 		@GetMapping("/v1/vote/{voterId}")
 		Boolean verificaVoter(@PathVariable(name = "voterId") Long voterId);
+
+		@PostMapping("/v1/vote/voters")
+		Set<Long> findVotersWithVotes(@RequestBody Collection<Long> voterIds);
 	}
 }
@@ -0,0 +1,39 @@
+package br.edu.ulbra.election.voter.client;
+
+import br.edu.ulbra.election.voter.config.VoteClientConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component
+public class VoteServiceHealthIndicator implements HealthIndicator {
+
+	private final CircuitBreaker circuitBreaker;
+
+	private final Bulkhead bulkhead;
+
+	@Autowired
+	public VoteServiceHealthIndicator(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+		this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(VoteClientConfig.VOTE_SERVICE);
+		this.bulkhead = bulkheadRegistry.bulkhead(VoteClientConfig.VOTE_SERVICE);
+	}
+
+	@Override
+	public Health health() {
+		CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+		// Reported as UP in every state: a degraded vote service only affects deletes, not this service.
+		return Health.up()
+				.withDetail("circuitBreaker", circuitBreaker.getState())
+				.withDetail("failureRate", metrics.getFailureRate())
+				.withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+				.withDetail("failedCalls", metrics.getNumberOfFailedCalls())
+				.withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+				.withDetail("bulkheadAvailableCalls", bulkhead.getMetrics().getAvailableConcurrentCalls())
+				.build();
+	}
+}
@@ -0,0 +1,53 @@
+package br.edu.ulbra.election.voter.config;
+
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig {
+
+    public static final String LOGIN_EXECUTOR = "loginExecutor";
+    public static final String VOTER_EXECUTOR = "voterExecutor";
+
+    private static final String MESSAGE_SATURATED = "Server busy, try again later";
+
+    @Bean(name = LOGIN_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService loginExecutor(@Value("${async.login.pool-size:0}") int poolSize,
+                                         @Value("${async.login.queue-capacity:200}") int queueCapacity,
+                                         @Value("${virtual-threads.enabled:false}") boolean virtualThreads,
+                                         MeterRegistry meterRegistry) {
+        return executor("login", poolSize, queueCapacity, virtualThreads, meterRegistry);
+    }
+
+    @Bean(name = VOTER_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService voterExecutor(@Value("${async.voter.pool-size:0}") int poolSize,
+                                         @Value("${async.voter.queue-capacity:200}") int queueCapacity,
+                                         @Value("${virtual-threads.enabled:false}") boolean virtualThreads,
+                                         MeterRegistry meterRegistry) {
+        return executor("voter", poolSize, queueCapacity, virtualThreads, meterRegistry);
+    }
+
+    private static ExecutorService executor(String name, int poolSize, int queueCapacity, boolean virtualThreads, MeterRegistry meterRegistry) {
+        if (virtualThreads) {
+            // unbounded on purpose: bcrypt, the vote-service bulkhead and the connection pool keep their own limits
+            return ExecutorServiceMetrics.monitor(meterRegistry, VirtualThreads.newVirtualThreadPerTaskExecutor(), name + "-async");
+        }
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors() * 2;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory(name + "-async-"),
+                (task, pool) -> {
+                    throw new ServiceUnavailableException(MESSAGE_SATURATED);
+                });
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, name + "-async");
+    }
+}
@@ -0,0 +1,28 @@
+package br.edu.ulbra.election.voter.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.cache.jcache.JCacheRegionFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+
+import javax.cache.configuration.Configuration;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String MAXIMUM_SIZE = "hibernate.javax.cache.maximum-size";
+    public static final String EXPIRE_AFTER_WRITE_SECONDS = "hibernate.javax.cache.expire-after-write-seconds";
+
+    @Override
+    protected Configuration<Object, Object> newDefaultConfig(Properties properties, CacheDataDescription metadata) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(Long.parseLong(properties.getProperty(MAXIMUM_SIZE, "10000"))));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(
+                Long.parseLong(properties.getProperty(EXPIRE_AFTER_WRITE_SECONDS, "600")))));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
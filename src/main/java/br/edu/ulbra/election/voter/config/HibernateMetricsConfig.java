@@ -0,0 +1,19 @@
+package br.edu.ulbra.election.voter.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class HibernateMetricsConfig {
+
+    @Autowired
+    public HibernateMetricsConfig(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        HibernateMetrics.monitor(meterRegistry, entityManagerFactory, "entityManagerFactory");
+    }
+}
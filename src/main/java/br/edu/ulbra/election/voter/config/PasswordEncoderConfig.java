@@ -1,5 +1,7 @@
 package br.edu.ulbra.election.voter.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -9,7 +11,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class PasswordEncoderConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password-hashing.pool-size:0}") int poolSize,
+                                           @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${password-hashing.timeout-millis:1000}") long timeoutMillis,
+                                           MeterRegistry meterRegistry){
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), hashingThreads(poolSize), queueCapacity, timeoutMillis, meterRegistry);
+    }
+
+    public static int hashingThreads(int poolSize){
+        return poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
     }
 }
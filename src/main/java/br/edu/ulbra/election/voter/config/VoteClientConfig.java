@@ -0,0 +1,61 @@
+package br.edu.ulbra.election.voter.config;
+
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.BulkheadMetrics;
+import io.github.resilience4j.micrometer.CircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class VoteClientConfig {
+
+    public static final String VOTE_SERVICE = "vote-service";
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(@Value("${vote-service.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                                         @Value("${vote-service.circuit-breaker.ring-buffer-size:20}") int ringBufferSize,
+                                                         @Value("${vote-service.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                                                         @Value("${vote-service.circuit-breaker.wait-in-open-millis:10000}") long waitInOpenMillis,
+                                                         MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .ringBufferSizeInClosedState(ringBufferSize)
+                .ringBufferSizeInHalfOpenState(halfOpenCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenMillis))
+                .recordFailure(VoteClientConfig::isVoteServiceFailure)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        registry.circuitBreaker(VOTE_SERVICE);
+        CircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(@Value("${vote-service.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+                                             @Value("${vote-service.bulkhead.max-wait-millis:0}") long maxWaitMillis,
+                                             MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitTime(maxWaitMillis)
+                .build());
+        registry.bulkhead(VOTE_SERVICE);
+        BulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    static boolean isVoteServiceFailure(Throwable throwable) {
+        if (throwable instanceof FeignException) {
+            int status = ((FeignException) throwable).status();
+            return status <= 0 || status >= 500;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package br.edu.ulbra.election.voter.mapper;
+
+import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import br.edu.ulbra.election.voter.repository.TokenVoterProjection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class VoterMapper {
+
+	private VoterMapper() {
+	}
+
+	public static VoterOutput toOutput(Voter voter) {
+		VoterOutput voterOutput = new VoterOutput();
+		voterOutput.setId(voter.getId());
+		voterOutput.setEmail(voter.getEmail());
+		voterOutput.setName(voter.getName());
+		return voterOutput;
+	}
+
+	public static VoterOutput toOutput(TokenVoterProjection tokenVoter) {
+		VoterOutput voterOutput = new VoterOutput();
+		voterOutput.setId(tokenVoter.getVoterId());
+		voterOutput.setEmail(tokenVoter.getEmail());
+		voterOutput.setName(tokenVoter.getName());
+		return voterOutput;
+	}
+
+	public static List<VoterOutput> toOutputList(Iterable<Voter> voters) {
+		List<VoterOutput> voterOutputs = voters instanceof Collection
+				? new ArrayList<>(((Collection<Voter>) voters).size())
+				: new ArrayList<>();
+		for (Voter voter : voters) {
+			voterOutputs.add(toOutput(voter));
+		}
+		return voterOutputs;
+	}
+
+	public static Voter toEntity(VoterInput voterInput) {
+		Voter voter = new Voter();
+		voter.setEmail(voterInput.getEmail());
+		voter.setName(voterInput.getName());
+		voter.setPassword(voterInput.getPassword());
+		return voter;
+	}
+}
@@ -0,0 +1,41 @@
+package br.edu.ulbra.election.voter.metrics;
+
+import br.edu.ulbra.election.voter.exception.GenericOutputException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the service errors that reach MVC, including the ones an /async handler completes its result with,
+ * and leaves the response to the resolvers after it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ErrorMetricsResolver implements HandlerExceptionResolver {
+
+    public static final String ERRORS = "voter.errors";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ErrorMetricsResolver(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (ex instanceof GenericOutputException) {
+            meterRegistry.counter(ERRORS, "reason", ex.getMessage() == null ? NONE : ex.getMessage()).increment();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package br.edu.ulbra.election.voter.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+public class MetricsAspect {
+
+    public static final String SERVICE_CALLS = "service.calls";
+    public static final String REPOSITORY_CALLS = "repository.calls";
+    public static final String CLIENT_CALLS = "client.calls";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, String> classNames = new ConcurrentHashMap<>();
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * br.edu.ulbra.election.voter.service..*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_CALLS, joinPoint);
+    }
+
+    @Around("execution(public * *(..)) && (within(br.edu.ulbra.election.voter.repository..*) || target(org.springframework.data.repository.Repository))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_CALLS, joinPoint);
+    }
+
+    @Around("execution(public * br.edu.ulbra.election.voter.client.VoteClientService.*(..)) || execution(* br.edu.ulbra.election.voter.client.VoteClientService.VoteClient.*(..))")
+    public Object timeClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(CLIENT_CALLS, joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(name, joinPoint, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, ProceedingJoinPoint joinPoint, String exception) {
+        Object target = joinPoint.getTarget();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        // the same interface method runs on several repositories, so the target class is part of the key
+        return timers.computeIfAbsent(new TimerKey(name, target.getClass(), method, exception), key -> Timer.builder(name)
+                .tag("class", className(target))
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(meterRegistry));
+    }
+
+    private String className(Object target) {
+        return classNames.computeIfAbsent(target.getClass(), type -> {
+            if (Proxy.isProxyClass(type)) {
+                Class<?>[] interfaces = target instanceof Advised ? AopProxyUtils.proxiedUserInterfaces(target) : type.getInterfaces();
+                return interfaces.length > 0 ? interfaces[0].getSimpleName() : type.getSimpleName();
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        });
+    }
+
+    private static final class TimerKey {
+
+        private final String name;
+        private final Class<?> targetClass;
+        private final Method method;
+        private final String exception;
+
+        private TimerKey(String name, Class<?> targetClass, Method method, String exception) {
+            this.name = name;
+            this.targetClass = targetClass;
+            this.method = method;
+            this.exception = exception;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TimerKey)) {
+                return false;
+            }
+            TimerKey other = (TimerKey) o;
+            return name.equals(other.name) && targetClass == other.targetClass
+                    && method.equals(other.method) && exception.equals(other.exception);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, targetClass, method, exception);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package br.edu.ulbra.election.voter.model;
 
+import br.edu.ulbra.election.voter.exception.GenericOutputException;
+
 import javax.persistence.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 
 @Entity
@@ -13,7 +18,7 @@ public class Token {
     @OneToOne(optional = false, fetch = FetchType.LAZY)
     private Voter voter;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true, length = 64)
     private String token;
 
     @Column(nullable = false)
@@ -51,4 +56,17 @@ public class Token {
     public void setExpireDate(Date expireDate) {
         this.expireDate = expireDate;
     }
+
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GenericOutputException("Erro ao encriptar os dados");
+        }
+    }
 }
@@ -3,13 +3,22 @@ package br.edu.ulbra.election.voter.model;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
 
 import javax.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import br.edu.ulbra.election.voter.exception.GenericOutputException;
 import br.edu.ulbra.election.voter.repository.VoterRepository;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Voter {
 
 	@Id
@@ -19,9 +28,16 @@ public class Voter {
 	@Column(unique = true, nullable = false)
 	private String email;
 
+	@NaturalId(mutable = true)
+	@Column(name = "email_normalized", unique = true, nullable = false)
+	private String emailNormalized;
+
 	@Column(nullable = false)
 	private String name;
 
+	@Column(name = "name_normalized", nullable = false)
+	private String nameNormalized;
+
 	@Column(nullable = false)
 	private String password;
 
@@ -41,6 +57,13 @@ public class Voter {
 		this.email = email;
 	}
 
+	@PrePersist
+	@PreUpdate
+	private void normalize() {
+		this.emailNormalized = normalizeEmail(this.email);
+		this.nameNormalized = normalizeName(this.name);
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -69,15 +92,15 @@ public class Voter {
 		}
 	}
 	
-	public static boolean verifyEmail(String email, VoterRepository voterRepository) {
+	public static String normalizeEmail(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
 
-		Iterable<Voter> list = voterRepository.findAll();
+	public static String normalizeName(String name) {
+		return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+	}
 
-		for (Voter aux : list) {
-			if (aux.getEmail().equalsIgnoreCase(email)) {
-				return true;
-			}
-		}
-		return false;
+	public static boolean verifyEmail(String email, VoterRepository voterRepository) {
+		return voterRepository.existsByEmailNormalized(normalizeEmail(email));
 	}
 }
@@ -0,0 +1,52 @@
+package br.edu.ulbra.election.voter.output.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Voter Change Output Information")
+public class VoterChangeOutput {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	@ApiModelProperty(example = "42", notes = "Position of the change in the change log")
+	private long sequence;
+	@ApiModelProperty(example = "UPDATED", notes = "Kind of change")
+	private Type type;
+	@ApiModelProperty(notes = "Voter state after the change, only the id for deletions")
+	private VoterOutput voter;
+
+	public VoterChangeOutput() {
+	}
+
+	public VoterChangeOutput(long sequence, Type type, VoterOutput voter) {
+		this.sequence = sequence;
+		this.type = type;
+		this.voter = voter;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public VoterOutput getVoter() {
+		return voter;
+	}
+
+	public void setVoter(VoterOutput voter) {
+		this.voter = voter;
+	}
+}
@@ -0,0 +1,41 @@
+package br.edu.ulbra.election.voter.output.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+@ApiModel(description = "Voter Change Page Output Information")
+public class VoterChangePageOutput {
+
+	@ApiModelProperty(notes = "Changes after the requested sequence, oldest first")
+	private List<VoterChangeOutput> changes;
+	@ApiModelProperty(example = "42", notes = "Sequence to resume from: the last change returned, or the latest sequence when a snapshot is required")
+	private long lastSequence;
+	@ApiModelProperty(notes = "The requested sequence is no longer in the log; reload GET /v1/voter/stream and resume from its X-Change-Sequence header")
+	private boolean snapshotRequired;
+
+	public List<VoterChangeOutput> getChanges() {
+		return changes;
+	}
+
+	public void setChanges(List<VoterChangeOutput> changes) {
+		this.changes = changes;
+	}
+
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	public void setLastSequence(long lastSequence) {
+		this.lastSequence = lastSequence;
+	}
+
+	public boolean isSnapshotRequired() {
+		return snapshotRequired;
+	}
+
+	public void setSnapshotRequired(boolean snapshotRequired) {
+		this.snapshotRequired = snapshotRequired;
+	}
+}
@@ -0,0 +1,34 @@
+package br.edu.ulbra.election.voter.output.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(description = "Voter Import Error Information")
+public class VoterImportErrorOutput {
+
+	@ApiModelProperty(example = "42", notes = "Line number in the imported file")
+	private long line;
+	@ApiModelProperty(example = "Duplicate e-mail.", notes = "Why the row was rejected")
+	private String message;
+
+	public VoterImportErrorOutput(long line, String message) {
+		this.line = line;
+		this.message = message;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public void setLine(long line) {
+		this.line = line;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
@@ -0,0 +1,71 @@
+package br.edu.ulbra.election.voter.output.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+@ApiModel(description = "Voter Import Output Information")
+public class VoterImportOutput {
+
+	@ApiModelProperty(example = "1000", notes = "Rows read from the request")
+	private long received;
+	@ApiModelProperty(example = "998", notes = "Voters inserted")
+	private long imported;
+	@ApiModelProperty(example = "2", notes = "Rows rejected")
+	private long failed;
+	@ApiModelProperty(example = "1520", notes = "Total import time in milliseconds")
+	private long elapsedMillis;
+	@ApiModelProperty(example = "656.5", notes = "Rows read per second")
+	private double rowsPerSecond;
+	@ApiModelProperty(notes = "Rejected rows, limited to the first 1000")
+	private List<VoterImportErrorOutput> errors;
+
+	public long getReceived() {
+		return received;
+	}
+
+	public void setReceived(long received) {
+		this.received = received;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public void setImported(long imported) {
+		this.imported = imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public double getRowsPerSecond() {
+		return rowsPerSecond;
+	}
+
+	public void setRowsPerSecond(double rowsPerSecond) {
+		this.rowsPerSecond = rowsPerSecond;
+	}
+
+	public List<VoterImportErrorOutput> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<VoterImportErrorOutput> errors) {
+		this.errors = errors;
+	}
+}
@@ -0,0 +1,31 @@
+package br.edu.ulbra.election.voter.output.v1;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+@ApiModel(description = "Voter Page Output Information")
+public class VoterPageOutput {
+
+	@ApiModelProperty(notes = "Voters in this page, ordered by id")
+	private List<VoterOutput> voters;
+	@ApiModelProperty(example = "50", notes = "Cursor to request the next page, null on the last page")
+	private Long nextCursor;
+
+	public List<VoterOutput> getVoters() {
+		return voters;
+	}
+
+	public void setVoters(List<VoterOutput> voters) {
+		this.voters = voters;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(Long nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
@@ -0,0 +1,69 @@
+package br.edu.ulbra.election.voter.ratelimit;
+
+import br.edu.ulbra.election.voter.exception.TooManyRequestsException;
+import br.edu.ulbra.election.voter.model.Voter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoginThrottle {
+
+    private static final String MESSAGE_THROTTLED = "Too many login attempts, try again later";
+
+    private final boolean enabled;
+
+    private final RateLimiter clientLimiter;
+
+    private final RateLimiter emailLimiter;
+
+    private final Counter clientThrottled;
+
+    private final Counter emailThrottled;
+
+    @Autowired
+    public LoginThrottle(@Value("${login-throttle.enabled:true}") boolean enabled,
+                         @Value("${login-throttle.client.permits-per-minute:60}") long clientPermitsPerMinute,
+                         @Value("${login-throttle.client.burst:20}") int clientBurst,
+                         @Value("${login-throttle.email.permits-per-minute:10}") long emailPermitsPerMinute,
+                         @Value("${login-throttle.email.burst:5}") int emailBurst,
+                         @Value("${login-throttle.maximum-buckets:100000}") long maximumBuckets,
+                         @Value("${login-throttle.idle-expire-seconds:600}") long idleExpireSeconds,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.clientLimiter = new RateLimiter(clientPermitsPerMinute, clientBurst, maximumBuckets, idleExpireSeconds, Ticker.systemTicker());
+        this.emailLimiter = new RateLimiter(emailPermitsPerMinute, emailBurst, maximumBuckets, idleExpireSeconds, Ticker.systemTicker());
+        this.clientThrottled = Counter.builder("login.throttled")
+                .tag("key", "client")
+                .description("Login attempts rejected because the client address exceeded its rate")
+                .register(meterRegistry);
+        this.emailThrottled = Counter.builder("login.throttled")
+                .tag("key", "email")
+                .description("Login attempts rejected because the e-mail exceeded its rate")
+                .register(meterRegistry);
+        Gauge.builder("login.throttle.buckets", clientLimiter, RateLimiter::size)
+                .tag("key", "client")
+                .register(meterRegistry);
+        Gauge.builder("login.throttle.buckets", emailLimiter, RateLimiter::size)
+                .tag("key", "email")
+                .register(meterRegistry);
+    }
+
+    public void check(String clientAddress, String email) {
+        if (!enabled) {
+            return;
+        }
+        if (clientAddress != null && !clientLimiter.tryAcquire(clientAddress)) {
+            clientThrottled.increment();
+            throw new TooManyRequestsException(MESSAGE_THROTTLED);
+        }
+        if (email != null && !emailLimiter.tryAcquire(Voter.normalizeEmail(email))) {
+            emailThrottled.increment();
+            throw new TooManyRequestsException(MESSAGE_THROTTLED);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package br.edu.ulbra.election.voter.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by an arbitrary string. Each bucket is a single {@link AtomicLong} holding the
+ * time at which it will be full again (GCRA), updated with a CAS loop, so acquiring never locks.
+ * Idle buckets expire and the number of buckets is bounded.
+ */
+public class RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final Ticker ticker;
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    public RateLimiter(long permitsPerMinute, int burst, long maximumBuckets, long idleExpireSeconds, Ticker ticker) {
+        if (permitsPerMinute < 1 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerMinute and burst must be positive");
+        }
+        this.ticker = ticker;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.burstNanos = intervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(idleExpireSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    public boolean tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = ticker.read();
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return true;
+            }
+        }
+    }
+
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -1,10 +1,15 @@
 package br.edu.ulbra.election.voter.repository;
 
 import br.edu.ulbra.election.voter.model.Token;
-import br.edu.ulbra.election.voter.model.Voter;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface TokenRepository extends CrudRepository<Token, Long> {
-    Token findFirstByVoter(Voter voter);
-    Token findFirstByToken(String token);
+public interface TokenRepository extends CrudRepository<Token, Long>, TokenRepositoryCustom {
+    @Query("select t from Token t join fetch t.voter where t.token = :digest")
+    Token findWithVoterByDigest(@Param("digest") String digest);
+
+    @Query("select new br.edu.ulbra.election.voter.repository.TokenVoterProjection(t.expireDate, v.id, v.email, v.name) " +
+            "from Token t join t.voter v where t.token = :digest")
+    TokenVoterProjection findProjectionByDigest(@Param("digest") String digest);
 }
@@ -0,0 +1,12 @@
+package br.edu.ulbra.election.voter.repository;
+
+import java.util.Date;
+
+public interface TokenRepositoryCustom {
+    int deleteExpired(Date now, int batchSize);
+
+    /**
+     * Inserts the voter's token or replaces the existing one in a single statement.
+     */
+    void upsert(Long voterId, String digest, Date expireDate);
+}
@@ -0,0 +1,47 @@
+package br.edu.ulbra.election.voter.repository;
+
+import br.edu.ulbra.election.voter.model.Token;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+import java.util.Date;
+
+public class TokenRepositoryImpl implements TokenRepositoryCustom {
+
+    private static final String DELETE_EXPIRED = "delete from token where id in " +
+            "(select id from token where expire_date < :now order by expire_date limit :batchSize)";
+
+    private static final String UPSERT = "merge into token (voter_id, token, expire_date) key (voter_id) " +
+            "values (:voterId, :token, :expireDate)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int deleteExpired(Date now, int batchSize) {
+        // declaring the touched table keeps Hibernate from evicting every second-level cache region
+        return entityManager.createNativeQuery(DELETE_EXPIRED)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Token.class)
+                .setParameter("now", now, TemporalType.TIMESTAMP)
+                .setParameter("batchSize", batchSize)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void upsert(Long voterId, String digest, Date expireDate) {
+        // H2 MERGE ... KEY locks the voter's row, so concurrent logins replace each other instead of colliding
+        entityManager.createNativeQuery(UPSERT)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Token.class)
+                .setParameter("voterId", voterId)
+                .setParameter("token", digest)
+                .setParameter("expireDate", expireDate, TemporalType.TIMESTAMP)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,37 @@
+package br.edu.ulbra.election.voter.repository;
+
+import java.util.Date;
+
+public class TokenVoterProjection {
+
+    private final Date expireDate;
+
+    private final Long voterId;
+
+    private final String email;
+
+    private final String name;
+
+    public TokenVoterProjection(Date expireDate, Long voterId, String email, String name) {
+        this.expireDate = expireDate;
+        this.voterId = voterId;
+        this.email = email;
+        this.name = name;
+    }
+
+    public Date getExpireDate() {
+        return expireDate;
+    }
+
+    public Long getVoterId() {
+        return voterId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,68 @@
+package br.edu.ulbra.election.voter.repository;
+
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+public class VoterJdbcRepository {
+
+	private static final String SELECT_ALL = "select id, email, name from voter order by id";
+	private static final String SELECT_EXISTING_EMAILS = "select email_normalized from voter where email_normalized in (:emails)";
+	private static final String INSERT = "insert into voter (email, email_normalized, name, name_normalized, password) values (?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	public VoterJdbcRepository(DataSource dataSource, @Value("${voter.stream.fetch-size:500}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(new JdbcTemplate(dataSource));
+	}
+
+	public void forEach(Consumer<VoterOutput> consumer) {
+		jdbcTemplate.query(SELECT_ALL, rs -> {
+			VoterOutput voterOutput = new VoterOutput();
+			voterOutput.setId(rs.getLong(1));
+			voterOutput.setEmail(rs.getString(2));
+			voterOutput.setName(rs.getString(3));
+			consumer.accept(voterOutput);
+		});
+	}
+
+	public Set<String> findExistingEmails(Collection<String> emailsNormalized) {
+		Set<String> existing = new HashSet<>();
+		if (emailsNormalized.isEmpty()) {
+			return existing;
+		}
+		namedParameterJdbcTemplate.query(SELECT_EXISTING_EMAILS, new MapSqlParameterSource("emails", emailsNormalized),
+				(rs) -> {
+					existing.add(rs.getString(1));
+				});
+		return existing;
+	}
+
+	public void insertAll(List<Voter> voters) {
+		jdbcTemplate.batchUpdate(INSERT, voters, voters.size(), (ps, voter) -> {
+			ps.setString(1, voter.getEmail());
+			ps.setString(2, Voter.normalizeEmail(voter.getEmail()));
+			ps.setString(3, voter.getName());
+			ps.setString(4, Voter.normalizeName(voter.getName()));
+			ps.setString(5, voter.getPassword());
+		});
+	}
+}
@@ -1,8 +1,21 @@
 package br.edu.ulbra.election.voter.repository;
 
 import br.edu.ulbra.election.voter.model.Voter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
-public interface VoterRepository extends CrudRepository<Voter, Long> {
-    Voter findFirstByEmail(String email);
+import java.util.List;
+
+public interface VoterRepository extends CrudRepository<Voter, Long>, VoterRepositoryCustom {
+    boolean existsByEmailNormalized(String emailNormalized);
+    boolean existsByEmailNormalizedAndIdNot(String emailNormalized, Long id);
+    List<Voter> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select v from Voter v where v.nameNormalized like :pattern escape '!' order by v.nameNormalized, v.id")
+    List<Voter> searchByNamePrefix(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query("select v from Voter v where v.nameNormalized like :pattern escape '!' order by v.id")
+    List<Voter> searchByNameContaining(@Param("pattern") String pattern, Pageable pageable);
 }
@@ -0,0 +1,27 @@
+package br.edu.ulbra.election.voter.repository;
+
+import br.edu.ulbra.election.voter.model.Voter;
+
+import java.util.Collection;
+
+public interface VoterRepositoryCustom {
+    Voter loadByEmailNormalized(String emailNormalized);
+
+    /**
+     * Sets the non-null fields in one UPDATE, skipped when the e-mail belongs to another voter.
+     * Returns 0 when the voter does not exist or the e-mail is taken.
+     */
+    int patch(Long id, String email, String name, String passwordHash);
+
+    /**
+     * Deletes the voter in one statement; its token goes through the ON DELETE CASCADE foreign key.
+     */
+    int removeById(Long id);
+
+    /**
+     * Deletes all the voters in one statement, or none of them when any id does not exist.
+     *
+     * @throws org.springframework.dao.IncorrectResultSizeDataAccessException when some ids were not found
+     */
+    void removeAllById(Collection<Long> ids);
+}
@@ -0,0 +1,129 @@
+package br.edu.ulbra.election.voter.repository;
+
+import br.edu.ulbra.election.voter.model.Voter;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class VoterRepositoryImpl implements VoterRepositoryCustom {
+
+    private static final String DELETE_BY_ID = "delete from voter where id = :id";
+    private static final String DELETE_ALL_BY_ID = "delete from voter where id in (:ids)";
+    private static final String TARGETED_EVICTION_SPACE = "voter_targeted_eviction";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.cache.use_second_level_cache:false}")
+    private boolean secondLevelCache;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Voter loadByEmailNormalized(String emailNormalized) {
+        if (secondLevelCache) {
+            return entityManager.unwrap(Session.class).bySimpleNaturalId(Voter.class).load(emailNormalized);
+        }
+        // without the natural-id cache Hibernate resolves the id and loads the row in two queries
+        List<Voter> voters = entityManager.createQuery("select v from Voter v where v.emailNormalized = :emailNormalized", Voter.class)
+                .setParameter("emailNormalized", emailNormalized)
+                .setMaxResults(1)
+                .getResultList();
+        return voters.isEmpty() ? null : voters.get(0);
+    }
+
+    @Override
+    @Transactional
+    public int patch(Long id, String email, String name, String passwordHash) {
+        StringBuilder sql = new StringBuilder("update voter set ");
+        if (email != null) {
+            sql.append("email = :email, email_normalized = :emailNormalized, ");
+        }
+        if (name != null) {
+            sql.append("name = :name, name_normalized = :nameNormalized, ");
+        }
+        if (passwordHash != null) {
+            sql.append("password = :password, ");
+        }
+        sql.setLength(sql.length() - 2);
+        sql.append(" where id = :id");
+        if (email != null) {
+            sql.append(" and not exists (select 1 from voter o where o.email_normalized = :emailNormalized and o.id <> :id)");
+        }
+
+        NativeQuery<?> query = bulkStatement(sql.toString()).setParameter("id", id);
+        if (email != null) {
+            query.setParameter("email", email).setParameter("emailNormalized", Voter.normalizeEmail(email));
+        }
+        if (name != null) {
+            query.setParameter("name", name).setParameter("nameNormalized", Voter.normalizeName(name));
+        }
+        if (passwordHash != null) {
+            query.setParameter("password", passwordHash);
+        }
+        int updated = query.executeUpdate();
+        if (updated > 0) {
+            // the natural-id cache is keyed by e-mail and Hibernate cannot evict a single entry, only the region
+            evictAfterCommit(Collections.singleton(id), email != null);
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int removeById(Long id) {
+        int deleted = bulkStatement(DELETE_BY_ID).setParameter("id", id).executeUpdate();
+        if (deleted > 0) {
+            // the deleted e-mail may be registered again, and a stale lookup would resolve it to the dead id
+            evictAfterCommit(Collections.singleton(id), true);
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public void removeAllById(Collection<Long> ids) {
+        int deleted = bulkStatement(DELETE_ALL_BY_ID).setParameter("ids", ids).executeUpdate();
+        if (deleted != ids.size()) {
+            // rolls the delete back
+            throw new IncorrectResultSizeDataAccessException(ids.size(), deleted);
+        }
+        evictAfterCommit(ids, true);
+    }
+
+    // a query space no entity maps to, so Hibernate does not clear the whole Voter and natural-id regions;
+    // evictAfterCommit drops only the rows the statement touched
+    private NativeQuery<?> bulkStatement(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TARGETED_EVICTION_SPACE);
+    }
+
+    private void evictAfterCommit(Collection<Long> ids, boolean naturalIds) {
+        if (!secondLevelCache) {
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        // after commit, so a concurrent reader cannot put the old row back in between
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(id -> cache.evictEntity(Voter.class, id));
+                if (naturalIds) {
+                    cache.evictNaturalIdRegion(Voter.class);
+                }
+            }
+        });
+    }
+}
@@ -1,20 +1,27 @@
 package br.edu.ulbra.election.voter.service;
 
+import br.edu.ulbra.election.voter.cache.TokenCache;
 import br.edu.ulbra.election.voter.exception.GenericOutputException;
 import br.edu.ulbra.election.voter.input.v1.LoginInput;
+import br.edu.ulbra.election.voter.mapper.VoterMapper;
 import br.edu.ulbra.election.voter.model.Token;
 import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.GenericOutput;
 import br.edu.ulbra.election.voter.output.v1.LoginOutput;
 import br.edu.ulbra.election.voter.output.v1.VoterOutput;
 import br.edu.ulbra.election.voter.repository.TokenRepository;
+import br.edu.ulbra.election.voter.repository.TokenVoterProjection;
 import br.edu.ulbra.election.voter.repository.VoterRepository;
 import org.apache.commons.lang.StringUtils;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
+import java.util.Base64;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 
 @Service
@@ -26,18 +33,34 @@ public class LoginService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final ModelMapper modelMapper;
+    private final TokenCache tokenCache;
+
+    private final SignedTokenService signedTokenService;
+
+    private final boolean signedTokens;
+
+    private final long expireTimeInMillis;
 
     private static final String INVALID_CREDENTIALS = "Invalid Credentials";
     private static final String INVALID_TOKEN = "Invalid Token";
-    private static final long EXPIRE_TIME_IN_MILLIS = 2L * 60000L;
+    private static final String EXPIRED_TOKEN = "Expired Token";
+    private static final String TOKEN_MODE_SIGNED = "signed";
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     @Autowired
-    public LoginService(VoterRepository voterRepository, TokenRepository tokenRepository, PasswordEncoder passwordEncoder, ModelMapper modelMapper){
+    public LoginService(VoterRepository voterRepository, TokenRepository tokenRepository, PasswordEncoder passwordEncoder, TokenCache tokenCache,
+                        SignedTokenService signedTokenService,
+                        @Value("${token.mode:database}") String tokenMode,
+                        @Value("${token.expire-time-millis:120000}") long expireTimeInMillis){
         this.voterRepository = voterRepository;
         this.tokenRepository = tokenRepository;
         this.passwordEncoder = passwordEncoder;
-        this.modelMapper = modelMapper;
+        this.tokenCache = tokenCache;
+        this.signedTokenService = signedTokenService;
+        this.signedTokens = TOKEN_MODE_SIGNED.equalsIgnoreCase(tokenMode);
+        this.expireTimeInMillis = expireTimeInMillis;
     }
 
     public LoginOutput login(LoginInput loginInput){
@@ -46,7 +69,7 @@ public class LoginService {
             throw new GenericOutputException("Invalid input");
         }
 
-        Voter voter = voterRepository.findFirstByEmail(loginInput.getEmail());
+        Voter voter = voterRepository.loadByEmailNormalized(Voter.normalizeEmail(loginInput.getEmail()));
 
         if (voter == null){
             throw new GenericOutputException(INVALID_CREDENTIALS);
@@ -56,22 +79,20 @@ public class LoginService {
             throw new GenericOutputException(INVALID_CREDENTIALS);
         }
 
-        Token token = tokenRepository.findFirstByVoter(voter);
-        if (token == null){
-            token = new Token();
-            token.setVoter(voter);
-        }
-
         Calendar date = Calendar.getInstance();
         long timeStamp = date.getTimeInMillis();
-        Date expireDate = new Date(timeStamp + EXPIRE_TIME_IN_MILLIS);
-
-        String tokenString = generateToken(voter, expireDate);
-        token.setToken(tokenString);
-        token.setExpireDate(expireDate);
-        tokenRepository.save(token);
+        Date expireDate = new Date(timeStamp + expireTimeInMillis);
 
         LoginOutput loginOutput = new LoginOutput();
+        if (signedTokens){
+            loginOutput.setToken(signedTokenService.issue(voter, expireDate));
+            return loginOutput;
+        }
+
+        String tokenString = generateToken();
+        tokenRepository.upsert(voter.getId(), Token.digest(tokenString), expireDate);
+        tokenCache.evictVoter(voter.getId());
+
         loginOutput.setToken(tokenString);
         return loginOutput;
     }
@@ -81,21 +102,82 @@ public class LoginService {
             throw new GenericOutputException(INVALID_TOKEN);
         }
 
-        Token token = tokenRepository.findFirstByToken(tokenInput);
-        if (token == null){
+        if (signedTokens){
+            return checkSignedToken(tokenInput);
+        }
+
+        VoterOutput cached = tokenCache.get(tokenInput);
+        if (cached != null){
+            return cached;
+        }
+
+        long lookupStarted = tokenCache.beginLookup();
+        TokenVoterProjection tokenVoter = tokenRepository.findProjectionByDigest(Token.digest(tokenInput));
+        if (tokenVoter == null){
             throw new GenericOutputException(INVALID_TOKEN);
         }
 
         Date actualDate = new Date();
-        if (!token.getExpireDate().after(actualDate)){
-            throw new GenericOutputException("Expired Token");
+        if (!tokenVoter.getExpireDate().after(actualDate)){
+            throw new GenericOutputException(EXPIRED_TOKEN);
+        }
+
+        VoterOutput voterOutput = VoterMapper.toOutput(tokenVoter);
+        tokenCache.put(tokenInput, voterOutput, tokenVoter.getExpireDate(), lookupStarted);
+        return voterOutput;
+    }
+
+    public GenericOutput logout(String tokenInput){
+        if(StringUtils.isBlank(tokenInput)){
+            throw new GenericOutputException(INVALID_TOKEN);
+        }
+
+        if (signedTokens){
+            SignedTokenService.Claims claims = signedTokenService.verify(tokenInput);
+            if (claims == null){
+                throw new GenericOutputException(INVALID_TOKEN);
+            }
+            signedTokenService.revoke(claims.getVoterId());
+            return new GenericOutput("Logged out");
         }
 
-        return modelMapper.map(token.getVoter(), VoterOutput.class);
+        Token token = tokenRepository.findWithVoterByDigest(Token.digest(tokenInput));
+        if (token == null){
+            throw new GenericOutputException(INVALID_TOKEN);
+        }
+        tokenRepository.delete(token);
+        tokenCache.evictVoter(token.getVoter().getId());
+        return new GenericOutput("Logged out");
+    }
+
+    public void invalidateSessions(Long voterId){
+        tokenCache.evictVoter(voterId);
+        if (signedTokens){
+            signedTokenService.revoke(voterId);
+        }
+    }
+
+    public void invalidateSessions(Collection<Long> voterIds){
+        voterIds.forEach(tokenCache::evictVoter);
+        if (signedTokens){
+            signedTokenService.revokeAll(voterIds);
+        }
+    }
+
+    private VoterOutput checkSignedToken(String tokenInput){
+        SignedTokenService.Claims claims = signedTokenService.verify(tokenInput);
+        if (claims == null || signedTokenService.isRevoked(claims)){
+            throw new GenericOutputException(INVALID_TOKEN);
+        }
+        if (claims.isExpired()){
+            throw new GenericOutputException(EXPIRED_TOKEN);
+        }
+        return claims.toVoterOutput();
     }
 
-    private String generateToken(Voter voter, Date expireDate){
-        String openToken = String.format("%s%s%s", voter.getEmail(), voter.getName(), expireDate.toString());
-        return passwordEncoder.encode(openToken);
+    private String generateToken(){
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 }
@@ -0,0 +1,207 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.exception.GenericOutputException;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class SignedTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SignedTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> mac;
+
+    private final Cache<Long, Long> revocations;
+
+    // bulk deletes, kept apart so a large batch neither counts against the maximum size nor trips the cut-off
+    private final Cache<Long, Long> batchRevocations;
+
+    private final long revocationMaximumSize;
+
+    // tokens issued at or before this instant are revoked for every voter
+    private volatile long revokedBefore = Long.MIN_VALUE;
+
+    @Autowired
+    public SignedTokenService(@Value("${token.secret:}") String secret,
+                              @Value("${token.revocation.maximum-size:10000}") long revocationMaximumSize,
+                              @Value("${token.expire-time-millis:120000}") long expireTimeInMillis){
+        this.key = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+        this.revocationMaximumSize = revocationMaximumSize;
+        // no size bound: an evicted revocation would let the voter's old tokens validate again
+        this.revocations = Caffeine.newBuilder()
+                .expireAfterWrite(expireTimeInMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.batchRevocations = Caffeine.newBuilder()
+                .expireAfterWrite(expireTimeInMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public String issue(Voter voter, Date expireDate){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(voter.getId());
+            out.writeLong(expireDate.getTime());
+            out.writeLong(System.currentTimeMillis());
+            out.writeUTF(voter.getEmail());
+            out.writeUTF(voter.getName());
+        } catch (IOException e) {
+            throw new GenericOutputException("Error generating token");
+        }
+        byte[] payload = bytes.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(mac.get().doFinal(payload));
+    }
+
+    public Claims verify(String token){
+        int separator = token.indexOf('.');
+        if (separator <= 0 || separator != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(token.substring(0, separator));
+            signature = decoder.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, mac.get().doFinal(payload))) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            Claims claims = new Claims();
+            claims.voterId = in.readLong();
+            claims.expireAt = in.readLong();
+            claims.issuedAt = in.readLong();
+            claims.email = in.readUTF();
+            claims.name = in.readUTF();
+            return claims;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean isRevoked(Claims claims){
+        if (claims.issuedAt <= revokedBefore) {
+            return true;
+        }
+        Long notBefore = revocations.getIfPresent(claims.voterId);
+        if (notBefore != null && claims.issuedAt <= notBefore) {
+            return true;
+        }
+        Long batchNotBefore = batchRevocations.getIfPresent(claims.voterId);
+        return batchNotBefore != null && claims.issuedAt <= batchNotBefore;
+    }
+
+    public synchronized void revoke(Long voterId){
+        if (voterId == null) {
+            return;
+        }
+        revocations.put(voterId, System.currentTimeMillis());
+        if (revocations.estimatedSize() > revocationMaximumSize) {
+            revocations.cleanUp();
+            if (revocations.estimatedSize() > revocationMaximumSize) {
+                // fail closed: one cut-off replaces the individual entries and logs every voter out
+                revokedBefore = System.currentTimeMillis();
+                revocations.invalidateAll();
+                log.warn("More than {} signed-token revocations pending, revoked every token issued so far", revocationMaximumSize);
+            }
+        }
+    }
+
+    /**
+     * Revokes the tokens of every voter in one bulk operation. Its memory is bounded by the batch sizes seen in one
+     * token lifetime, never by the global cut-off.
+     */
+    public void revokeAll(Collection<Long> voterIds){
+        Long now = System.currentTimeMillis();
+        Map<Long, Long> batch = new HashMap<>(voterIds.size() * 2);
+        for (Long voterId : voterIds) {
+            if (voterId != null) {
+                batch.put(voterId, now);
+            }
+        }
+        batchRevocations.putAll(batch);
+    }
+
+    private Mac newMac(){
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret){
+        if (StringUtils.isBlank(secret)) {
+            log.warn("token.secret is not set, signed tokens will not survive a restart or be accepted by other instances");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static class Claims {
+        private long voterId;
+        private long expireAt;
+        private long issuedAt;
+        private String email;
+        private String name;
+
+        public long getVoterId(){
+            return voterId;
+        }
+
+        public boolean isExpired(){
+            return expireAt <= System.currentTimeMillis();
+        }
+
+        public VoterOutput toVoterOutput(){
+            VoterOutput voterOutput = new VoterOutput();
+            voterOutput.setId(voterId);
+            voterOutput.setEmail(email);
+            voterOutput.setName(name);
+            return voterOutput;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+@Component
+public class TokenReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenReaper.class);
+
+    private final TokenRepository tokenRepository;
+
+    private final int batchSize;
+
+    private final int maxBatchesPerRun;
+
+    private final Counter reclaimed;
+
+    private final DistributionSummary reclaimedPerRun;
+
+    @Autowired
+    public TokenReaper(TokenRepository tokenRepository,
+                       @Value("${token.reaper.batch-size:500}") int batchSize,
+                       @Value("${token.reaper.max-batches-per-run:100}") int maxBatchesPerRun,
+                       MeterRegistry meterRegistry) {
+        this.tokenRepository = tokenRepository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.reclaimed = Counter.builder("token.reaper.reclaimed")
+                .description("Expired tokens deleted by the reaper")
+                .register(meterRegistry);
+        this.reclaimedPerRun = DistributionSummary.builder("token.reaper.run")
+                .description("Expired tokens deleted per reaper run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${token.reaper.interval-millis:60000}", fixedDelayString = "${token.reaper.interval-millis:60000}")
+    public int reap() {
+        Date now = new Date();
+        int total = 0;
+        int batches = 0;
+        int deleted;
+        do {
+            deleted = tokenRepository.deleteExpired(now, batchSize);
+            total += deleted;
+            batches++;
+        } while (deleted == batchSize && batches < maxBatchesPerRun);
+
+        reclaimed.increment(total);
+        reclaimedPerRun.record(total);
+        if (total > 0) {
+            log.debug("Reclaimed {} expired tokens in {} batches", total, batches);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,130 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.output.v1.VoterChangeOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterChangePageOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Ordered, in-memory log of the voter mutations made through this instance, kept in a ring buffer of
+ * {@code voter.changes.capacity} entries. Consumers resume from the last sequence they applied; once that sequence has
+ * been overwritten, or a bulk import bypassed the log, they are told to reload a snapshot instead.
+ * <p>
+ * Every write commits on its own, so two writes to the same voter could commit in one order and append in the other.
+ * Writers therefore commit and append inside {@link #inOrder}, which holds a lock per voter across both.
+ */
+@Component
+public class VoterChangeLog {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final VoterChangeOutput[] buffer;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    // voters share a lock when their ids fall in the same stripe
+    private final ReentrantLock[] voterLocks = new ReentrantLock[LOCK_STRIPES];
+
+    // guarded by this
+    private long nextSequence = 1;
+
+    // guarded by this
+    private long oldestSequence = 1;
+
+    @Autowired
+    public VoterChangeLog(@Value("${voter.changes.capacity:10000}") int capacity, MeterRegistry meterRegistry) {
+        this.buffer = new VoterChangeOutput[capacity];
+        meterRegistry.gauge("voter.changes.sequence", this, VoterChangeLog::lastSequence);
+        for (int i = 0; i < voterLocks.length; i++) {
+            voterLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs a write that commits changes to the given voters and appends them, while no other write to those voters can
+     * commit, so each voter's entries are appended in commit order.
+     */
+    public <T> T inOrder(Collection<Long> voterIds, Supplier<T> write) {
+        // always locked in stripe order, so two bulk writes cannot deadlock
+        int[] stripes = voterIds.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : stripes) {
+                voterLocks[stripe].lock();
+                locked++;
+            }
+            return write.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                voterLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    public void append(VoterChangeOutput.Type type, VoterOutput voter) {
+        synchronized (this) {
+            long sequence = nextSequence++;
+            buffer[index(sequence)] = new VoterChangeOutput(sequence, type, voter);
+            oldestSequence = Math.max(oldestSequence, nextSequence - buffer.length);
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Marks every sequence issued so far as unusable, for writes that did not go through {@link #append}.
+     */
+    public void reset() {
+        synchronized (this) {
+            nextSequence++;
+            oldestSequence = nextSequence;
+            Arrays.fill(buffer, null);
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public synchronized VoterChangePageOutput read(long after, int limit) {
+        VoterChangePageOutput page = new VoterChangePageOutput();
+        if (after + 1 < oldestSequence || after >= nextSequence) {
+            page.setChanges(Collections.emptyList());
+            page.setLastSequence(nextSequence - 1);
+            page.setSnapshotRequired(true);
+            return page;
+        }
+        long end = Math.min(nextSequence - 1, after + limit);
+        List<VoterChangeOutput> changes = new ArrayList<>((int) (end - after));
+        for (long sequence = after + 1; sequence <= end; sequence++) {
+            changes.add(buffer[index(sequence)]);
+        }
+        page.setChanges(changes);
+        page.setLastSequence(end);
+        return page;
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private int stripe(Long voterId) {
+        return Math.floorMod(voterId.hashCode(), voterLocks.length);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % buffer.length);
+    }
+}
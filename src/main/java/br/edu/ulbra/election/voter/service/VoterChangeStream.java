@@ -0,0 +1,229 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.output.v1.VoterChangeOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterChangePageOutput;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes {@link VoterChangeLog} entries to server-sent event subscribers. Writes run on a small pool of sender threads,
+ * one delivery per subscriber at a time, so they never delay the request that made the change.
+ * <p>
+ * A write to a client that stopped reading blocks inside the emitter, holding its monitor, until the connector's
+ * socket write timeout ({@code server.connection-timeout}) fails it; nothing else can abort it, since completing the
+ * emitter needs that monitor. So a subscriber whose write takes longer than {@code voter.changes.send-timeout-millis}
+ * is dropped without touching its emitter, and the pool gets an extra sender until the blocked write returns, so the
+ * other subscribers keep their senders.
+ */
+@Component
+public class VoterChangeStream {
+
+    static final String EVENT_SNAPSHOT_REQUIRED = "snapshot-required";
+
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private static final long STALLED = Long.MIN_VALUE + 1;
+
+    private final VoterChangeLog voterChangeLog;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ThreadPoolExecutor senders;
+
+    private final ScheduledExecutorService watchdog;
+
+    private final long timeoutMillis;
+
+    private final long sendTimeoutNanos;
+
+    private final int batchSize;
+
+    @Autowired
+    public VoterChangeStream(VoterChangeLog voterChangeLog, MeterRegistry meterRegistry,
+                             @Value("${voter.changes.stream-timeout-millis:300000}") long timeoutMillis,
+                             @Value("${voter.changes.batch-size:500}") int batchSize,
+                             @Value("${voter.changes.senders:4}") int senders,
+                             @Value("${voter.changes.send-timeout-millis:5000}") long sendTimeoutMillis) {
+        this.voterChangeLog = voterChangeLog;
+        this.timeoutMillis = timeoutMillis;
+        this.batchSize = batchSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.senders = new ThreadPoolExecutor(senders, senders, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads("voter-changes-"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads("voter-changes-watchdog-"));
+        long period = Math.max(1, sendTimeoutMillis / 2);
+        watchdog.scheduleWithFixedDelay(this::closeStalled, period, period, TimeUnit.MILLISECONDS);
+        voterChangeLog.addListener(this::dispatch);
+        meterRegistry.gaugeCollectionSize("voter.changes.subscribers", Collections.emptyList(), subscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(this::close);
+    }
+
+    public SseEmitter subscribe(long after) {
+        Subscriber subscriber = new Subscriber(createEmitter(timeoutMillis), after);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void dispatch() {
+        subscribers.forEach(this::schedule);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        subscriber.pending.set(true);
+        // a change that lands while a delivery is running is picked up by that delivery's next pass
+        if (subscriber.running.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                subscriber.running.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscriber.pending.getAndSet(false) && !subscriber.closed) {
+                deliver(subscriber);
+            }
+        } finally {
+            subscriber.running.set(false);
+        }
+        if (subscriber.pending.get() && !subscriber.closed) {
+            schedule(subscriber);
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            VoterChangePageOutput page;
+            do {
+                page = voterChangeLog.read(subscriber.cursor, batchSize);
+                if (page.isSnapshotRequired()) {
+                    send(subscriber, SseEmitter.event().name(EVENT_SNAPSHOT_REQUIRED).data(page.getLastSequence()));
+                    close(subscriber);
+                    return;
+                }
+                for (VoterChangeOutput change : page.getChanges()) {
+                    send(subscriber, SseEmitter.event()
+                            .id(Long.toString(change.getSequence()))
+                            .name(change.getType().name().toLowerCase())
+                            .data(change, MediaType.APPLICATION_JSON));
+                    subscriber.cursor = change.getSequence();
+                }
+            } while (page.getChanges().size() == batchSize && !subscriber.closed);
+        } catch (IOException | IllegalStateException e) {
+            // the client went away, or the emitter timed out or was completed
+            close(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStarted.set(System.nanoTime());
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            if (subscriber.sendStarted.getAndSet(IDLE) == STALLED) {
+                returnSender();
+            }
+        }
+        if (subscriber.closed) {
+            // dropped by the watchdog while the write was blocked; the monitor is free again, so the caller completes it
+            throw new IllegalStateException("Subscriber closed");
+        }
+    }
+
+    private void closeStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted.get();
+            if (started != IDLE && started != STALLED && now - started > sendTimeoutNanos
+                    && subscriber.sendStarted.compareAndSet(started, STALLED)) {
+                subscriber.closed = true;
+                subscribers.remove(subscriber);
+                lendSender();
+            }
+        }
+    }
+
+    // the blocked write keeps its thread until the connector fails it, so the others get a new one meanwhile
+    private synchronized void lendSender() {
+        senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+        senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+    }
+
+    private synchronized void returnSender() {
+        senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+        senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        // only touched by the delivery in progress; the running flag orders successive deliveries
+        private long cursor;
+
+        // System.nanoTime() when the write in progress started, IDLE between writes, STALLED once the watchdog dropped it
+        private final AtomicLong sendStarted = new AtomicLong(IDLE);
+
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.config.PasswordEncoderConfig;
+import br.edu.ulbra.election.voter.exception.GenericOutputException;
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
+import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.VoterImportErrorOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterImportOutput;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@Service
+public class VoterImportService {
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	private static final int MAX_REPORTED_ERRORS = 1000;
+	private static final String CSV_HEADER = "email,";
+
+	private final VoterJdbcRepository voterJdbcRepository;
+	private final VoterChangeLog voterChangeLog;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectReader voterInputReader;
+	private final PasswordEncoder passwordEncoder;
+	// only submits hashes to the shared encoder; its pool does the work and records password.hashing
+	private final ForkJoinPool hashingPool;
+	private final int batchSize;
+
+	@Autowired
+	public VoterImportService(VoterJdbcRepository voterJdbcRepository, VoterChangeLog voterChangeLog, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+							  PasswordEncoder passwordEncoder,
+							  @Value("${voter.import.batch-size:1000}") int batchSize,
+							  @Value("${voter.import.parallelism:0}") int parallelism,
+							  @Value("${password-hashing.pool-size:0}") int hashingPoolSize) {
+		this.voterJdbcRepository = voterJdbcRepository;
+		this.voterChangeLog = voterChangeLog;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.voterInputReader = objectMapper.readerFor(VoterInput.class);
+		this.passwordEncoder = passwordEncoder;
+		this.batchSize = batchSize;
+		// by default an import takes at most half of the hashing threads, so logins keep the rest
+		this.hashingPool = new ForkJoinPool(parallelism > 0 ? parallelism : Math.max(1, PasswordEncoderConfig.hashingThreads(hashingPoolSize) / 2));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		hashingPool.shutdownNow();
+	}
+
+	public VoterImportOutput importVoters(InputStream inputStream, Format format) {
+		long start = System.nanoTime();
+		Report report = new Report();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+			List<Row> batch = new ArrayList<>(batchSize);
+			String line;
+			long lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				long recordLine = lineNumber;
+				if (format == Format.CSV) {
+					// a quoted field may hold line breaks, so the record runs until its quotes are balanced
+					String next;
+					while (StringUtils.countMatches(line, "\"") % 2 != 0 && (next = reader.readLine()) != null) {
+						lineNumber++;
+						line = line + '\n' + next;
+					}
+				}
+				if (StringUtils.isBlank(line) || (recordLine == 1 && format == Format.CSV && line.toLowerCase().startsWith(CSV_HEADER))) {
+					continue;
+				}
+				report.received++;
+				Row row = parse(recordLine, line, format);
+				if (row.error != null) {
+					report.fail(row);
+					continue;
+				}
+				batch.add(row);
+				if (batch.size() == batchSize) {
+					importBatch(batch, report);
+					batch.clear();
+				}
+			}
+			importBatch(batch, report);
+		} catch (IOException e) {
+			throw new GenericOutputException("Error reading import file");
+		} finally {
+			// imported rows bypass the change log, so its consumers have to reload a snapshot
+			if (report.imported > 0) {
+				voterChangeLog.reset();
+			}
+		}
+
+		long elapsedNanos = System.nanoTime() - start;
+		VoterImportOutput output = new VoterImportOutput();
+		output.setReceived(report.received);
+		output.setImported(report.imported);
+		output.setFailed(report.failed);
+		output.setElapsedMillis(elapsedNanos / 1_000_000L);
+		output.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.imported * 1_000_000_000d / elapsedNanos);
+		output.setErrors(report.errors);
+		return output;
+	}
+
+	private Row parse(long lineNumber, String line, Format format) {
+		Row row = new Row(lineNumber);
+		VoterInput voterInput;
+		if (format == Format.CSV) {
+			List<String> fields = parseCsvRecord(line);
+			if (fields == null || fields.size() != 3) {
+				row.error = "Invalid row";
+				return row;
+			}
+			voterInput = new VoterInput();
+			voterInput.setEmail(fields.get(0).trim());
+			voterInput.setName(fields.get(1).trim());
+			voterInput.setPassword(fields.get(2));
+		} else {
+			try {
+				voterInput = voterInputReader.readValue(line);
+			} catch (IOException e) {
+				row.error = "Invalid row";
+				return row;
+			}
+		}
+		if (voterInput.getPasswordConfirm() == null) {
+			voterInput.setPasswordConfirm(voterInput.getPassword());
+		}
+
+		try {
+			VoterService.validateFields(voterInput, false);
+		} catch (GenericOutputException e) {
+			row.error = e.getMessage();
+			return row;
+		}
+		row.input = voterInput;
+		row.emailNormalized = Voter.normalizeEmail(voterInput.getEmail());
+		return row;
+	}
+
+	/**
+	 * Splits one RFC 4180 record into its fields: quoted fields may hold commas, line breaks and doubled quotes.
+	 * Returns null when the quoting is malformed.
+	 */
+	static List<String> parseCsvRecord(String record) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		int length = record.length();
+		int i = 0;
+		while (true) {
+			if (i < length && record.charAt(i) == '"') {
+				i++;
+				while (true) {
+					if (i == length) {
+						return null;
+					}
+					char c = record.charAt(i++);
+					if (c != '"') {
+						field.append(c);
+					} else if (i < length && record.charAt(i) == '"') {
+						field.append('"');
+						i++;
+					} else {
+						break;
+					}
+				}
+				if (i < length && record.charAt(i) != ',') {
+					return null;
+				}
+			} else {
+				while (i < length && record.charAt(i) != ',') {
+					char c = record.charAt(i++);
+					if (c == '"') {
+						return null;
+					}
+					field.append(c);
+				}
+			}
+			fields.add(field.toString());
+			field.setLength(0);
+			if (i == length) {
+				return fields;
+			}
+			// skip the comma
+			i++;
+		}
+	}
+
+	private void importBatch(List<Row> batch, Report report) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		Set<String> seen = new HashSet<>();
+		Set<String> existing = voterJdbcRepository.findExistingEmails(
+				batch.stream().map(row -> row.emailNormalized).collect(Collectors.toSet()));
+		List<Row> accepted = new ArrayList<>(batch.size());
+		for (Row row : batch) {
+			if (existing.contains(row.emailNormalized) || !seen.add(row.emailNormalized)) {
+				row.error = VoterService.MESSAGE_DUPLICATE_EMAIL;
+				report.fail(row);
+			} else {
+				accepted.add(row);
+			}
+		}
+
+		hash(accepted);
+		List<Row> hashed = new ArrayList<>(accepted.size());
+		for (Row row : accepted) {
+			if (row.error != null) {
+				report.fail(row);
+			} else {
+				hashed.add(row);
+			}
+		}
+		if (hashed.isEmpty()) {
+			return;
+		}
+
+		List<Voter> voters = hashed.stream().map(row -> row.voter).collect(Collectors.toList());
+		try {
+			transactionTemplate.execute(status -> {
+				voterJdbcRepository.insertAll(voters);
+				return null;
+			});
+			report.imported += voters.size();
+		} catch (DataIntegrityViolationException e) {
+			insertOneByOne(hashed, report);
+		}
+	}
+
+	private void hash(List<Row> rows) {
+		try {
+			hashingPool.submit(() -> rows.parallelStream().forEach(this::hash)).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GenericOutputException("Import interrupted");
+		} catch (ExecutionException e) {
+			throw new GenericOutputException("Error hashing passwords");
+		}
+	}
+
+	private void hash(Row row) {
+		Voter voter = new Voter();
+		voter.setEmail(row.input.getEmail());
+		voter.setName(row.input.getName());
+		try {
+			voter.setPassword(passwordEncoder.encode(row.input.getPassword()));
+			row.voter = voter;
+		} catch (ServiceUnavailableException e) {
+			// logins have the hashing pool saturated; the row is reported so the client can send it again
+			row.error = e.getMessage();
+		}
+	}
+
+	private void insertOneByOne(List<Row> rows, Report report) {
+		for (Row row : rows) {
+			try {
+				voterJdbcRepository.insertAll(Collections.singletonList(row.voter));
+				report.imported++;
+			} catch (DataIntegrityViolationException e) {
+				row.error = VoterService.MESSAGE_DUPLICATE_EMAIL;
+				report.fail(row);
+			}
+		}
+	}
+
+	private static final class Row {
+		private final long line;
+		private VoterInput input;
+		private String emailNormalized;
+		private Voter voter;
+		private String error;
+
+		private Row(long line) {
+			this.line = line;
+		}
+	}
+
+	private static final class Report {
+		private long received;
+		private long imported;
+		private long failed;
+		private final List<VoterImportErrorOutput> errors = new ArrayList<>();
+
+		private void fail(Row row) {
+			failed++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add(new VoterImportErrorOutput(row.line, row.error));
+			}
+		}
+	}
+}
@@ -2,53 +2,154 @@ package br.edu.ulbra.election.voter.service;
 
 import br.edu.ulbra.election.voter.client.VoteClientService;
 import br.edu.ulbra.election.voter.exception.GenericOutputException;
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
 import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.mapper.VoterMapper;
 import br.edu.ulbra.election.voter.model.Voter;
 import br.edu.ulbra.election.voter.output.v1.GenericOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterChangeOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterChangePageOutput;
 import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterPageOutput;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
 import br.edu.ulbra.election.voter.repository.VoterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import feign.FeignException;
 import org.apache.commons.lang.StringUtils;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class VoterService {
 
 	private final VoterRepository voterRepository;
+	private final VoterJdbcRepository voterJdbcRepository;
 	private final VoteClientService voteClientService;
-	private final ModelMapper modelMapper;
 	private final PasswordEncoder passwordEncoder;
+	private final ObjectWriter voterOutputWriter;
+	private final LoginService loginService;
+	private final VoterChangeLog voterChangeLog;
 
 	private static final String MESSAGE_INVALID_ID = "Invalid id";
 	private static final String MESSAGE_VOTER_NOT_FOUND = "Voter not found";
+	static final String MESSAGE_DUPLICATE_EMAIL = "Duplicate e-mail.";
+	private static final int DEFAULT_PAGE_SIZE = 50;
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final String MATCH_PREFIX = "prefix";
+	private static final String MATCH_CONTAINS = "contains";
 
 	@Autowired
-	public VoterService(VoterRepository voterRepository, ModelMapper modelMapper, PasswordEncoder passwordEncoder, VoteClientService voteClientService) {
+	public VoterService(VoterRepository voterRepository, VoterJdbcRepository voterJdbcRepository, PasswordEncoder passwordEncoder, VoteClientService voteClientService, ObjectMapper objectMapper, LoginService loginService, VoterChangeLog voterChangeLog) {
 		this.voterRepository = voterRepository;
-		this.modelMapper = modelMapper;
+		this.voterJdbcRepository = voterJdbcRepository;
 		this.passwordEncoder = passwordEncoder;
 		this.voteClientService = voteClientService;
+		this.voterOutputWriter = objectMapper.writerFor(VoterOutput.class);
+		this.loginService = loginService;
+		this.voterChangeLog = voterChangeLog;
 	}
 
 	public List<VoterOutput> getAll() {
-		Type voterOutputListType = new TypeToken<List<VoterOutput>>() {
-		}.getType();
-		return modelMapper.map(voterRepository.findAll(), voterOutputListType);
+		return VoterMapper.toOutputList(voterRepository.findAll());
+	}
+
+	public VoterPageOutput getPage(Long after, Integer size) {
+		if (size != null && size < 1) {
+			throw new GenericOutputException("Invalid page size");
+		}
+		int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+		long cursor = after == null ? 0L : after;
+
+		List<Voter> voters = voterRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize));
+
+		VoterPageOutput voterPageOutput = new VoterPageOutput();
+		voterPageOutput.setVoters(VoterMapper.toOutputList(voters));
+		if (voters.size() == pageSize) {
+			voterPageOutput.setNextCursor(voters.get(voters.size() - 1).getId());
+		}
+		return voterPageOutput;
+	}
+
+	public List<VoterOutput> search(String name, String match, Integer page, Integer size) {
+		if (StringUtils.isBlank(name)) {
+			throw new GenericOutputException("Invalid name");
+		}
+		if (size != null && size < 1) {
+			throw new GenericOutputException("Invalid page size");
+		}
+		if (page != null && page < 0) {
+			throw new GenericOutputException("Invalid page");
+		}
+		PageRequest pageRequest = PageRequest.of(page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE));
+		String term = escapeLike(Voter.normalizeName(name));
+
+		List<Voter> voters;
+		if (match == null || MATCH_PREFIX.equalsIgnoreCase(match)) {
+			voters = voterRepository.searchByNamePrefix(term + "%", pageRequest);
+		} else if (MATCH_CONTAINS.equalsIgnoreCase(match)) {
+			// no index serves a leading wildcard: scans in id order and stops once the page is full
+			voters = voterRepository.searchByNameContaining("%" + term + "%", pageRequest);
+		} else {
+			throw new GenericOutputException("Invalid match");
+		}
+		return VoterMapper.toOutputList(voters);
+	}
+
+	private static String escapeLike(String term) {
+		return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+	}
+
+	public VoterChangePageOutput getChanges(Long after, Integer size) {
+		if (size != null && size < 1) {
+			throw new GenericOutputException("Invalid page size");
+		}
+		return voterChangeLog.read(after == null ? 0L : after, size == null ? MAX_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE));
+	}
+
+	public long getChangeSequence() {
+		return voterChangeLog.lastSequence();
+	}
+
+	public void streamAll(OutputStream outputStream) {
+		voterJdbcRepository.forEach(voterOutput -> {
+			try {
+				voterOutputWriter.writeValue(outputStream, voterOutput);
+				outputStream.write('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
 	}
 
 	public VoterOutput create(VoterInput voterInput) {
 		validateInput(voterInput, false, voterRepository);
-		Voter voter = modelMapper.map(voterInput, Voter.class);
+		Voter voter = VoterMapper.toEntity(voterInput);
 		voter.setPassword(passwordEncoder.encode(voter.getPassword()));
-		voter = voterRepository.save(voter);
-		return modelMapper.map(voter, VoterOutput.class);
+		Voter created = saveUnique(voter);
+		return voterChangeLog.inOrder(Collections.singleton(created.getId()), () -> {
+			// a write that reached the new voter before this lock has already appended a newer state, so log the current one
+			Voter current = voterRepository.findById(created.getId()).orElse(null);
+			if (current == null) {
+				return VoterMapper.toOutput(created);
+			}
+			VoterOutput voterOutput = VoterMapper.toOutput(current);
+			voterChangeLog.append(VoterChangeOutput.Type.CREATED, voterOutput);
+			return voterOutput;
+		});
 	}
 
 	public VoterOutput getById(Long voterId) {
@@ -61,27 +162,87 @@ public class VoterService {
 			throw new GenericOutputException(MESSAGE_VOTER_NOT_FOUND);
 		}
 
-		return modelMapper.map(voter, VoterOutput.class);
+		return VoterMapper.toOutput(voter);
 	}
 
 	public VoterOutput update(Long voterId, VoterInput voterInput) {
 		if (voterId == null) {
 			throw new GenericOutputException(MESSAGE_INVALID_ID);
 		}
-		validateInput(voterInput, true, voterRepository);
+		validateFields(voterInput, true);
+		if (voterRepository.existsByEmailNormalizedAndIdNot(Voter.normalizeEmail(voterInput.getEmail()), voterId)) {
+			throw new GenericOutputException(MESSAGE_DUPLICATE_EMAIL);
+		}
 
-		Voter voter = voterRepository.findById(voterId).orElse(null);
-		if (voter == null) {
-			throw new GenericOutputException(MESSAGE_VOTER_NOT_FOUND);
+		String passwordHash = StringUtils.isBlank(voterInput.getPassword()) ? null : passwordEncoder.encode(voterInput.getPassword());
+
+		return voterChangeLog.inOrder(Collections.singleton(voterId), () -> {
+			Voter voter = voterRepository.findById(voterId).orElse(null);
+			if (voter == null) {
+				throw new GenericOutputException(MESSAGE_VOTER_NOT_FOUND);
+			}
+
+			voter.setEmail(voterInput.getEmail());
+			voter.setName(voterInput.getName());
+			if (passwordHash != null) {
+				voter.setPassword(passwordHash);
+			}
+			voter = saveUnique(voter);
+			loginService.invalidateSessions(voterId);
+			VoterOutput voterOutput = VoterMapper.toOutput(voter);
+			voterChangeLog.append(VoterChangeOutput.Type.UPDATED, voterOutput);
+			return voterOutput;
+		});
+	}
+
+	private Voter saveUnique(Voter voter) {
+		try {
+			return voterRepository.save(voter);
+		} catch (DataIntegrityViolationException e) {
+			// another voter took the e-mail between the exists check and the unique index
+			throw new GenericOutputException(MESSAGE_DUPLICATE_EMAIL);
 		}
+	}
 
-		voter.setEmail(voterInput.getEmail());
-		voter.setName(voterInput.getName());
+	public VoterOutput patch(Long voterId, VoterInput voterInput) {
+		if (voterId == null) {
+			throw new GenericOutputException(MESSAGE_INVALID_ID);
+		}
+		if (voterInput.getEmail() != null && StringUtils.isBlank(voterInput.getEmail())) {
+			throw new GenericOutputException("Invalid email");
+		}
+		if (voterInput.getName() != null) {
+			validateName(voterInput.getName());
+		}
+		String passwordHash = null;
 		if (!StringUtils.isBlank(voterInput.getPassword())) {
-            voter.setPassword(passwordEncoder.encode(voterInput.getPassword()));
-        }
-		voter = voterRepository.save(voter);
-		return modelMapper.map(voter, VoterOutput.class);
+			if (!voterInput.getPassword().equals(voterInput.getPasswordConfirm())) {
+				throw new GenericOutputException("Passwords doesn't match");
+			}
+			passwordHash = passwordEncoder.encode(voterInput.getPassword());
+		}
+		if (voterInput.getEmail() == null && voterInput.getName() == null && passwordHash == null) {
+			throw new GenericOutputException("Nothing to update");
+		}
+
+		String hash = passwordHash;
+		return voterChangeLog.inOrder(Collections.singleton(voterId), () -> {
+			int updated;
+			try {
+				updated = voterRepository.patch(voterId, voterInput.getEmail(), voterInput.getName(), hash);
+			} catch (DataIntegrityViolationException e) {
+				// another voter took the e-mail between the not-exists check and the unique index
+				throw new GenericOutputException(MESSAGE_DUPLICATE_EMAIL);
+			}
+			if (updated == 0) {
+				throw new GenericOutputException(voterRepository.existsById(voterId) ? MESSAGE_DUPLICATE_EMAIL : MESSAGE_VOTER_NOT_FOUND);
+			}
+
+			loginService.invalidateSessions(voterId);
+			VoterOutput voterOutput = getById(voterId);
+			voterChangeLog.append(VoterChangeOutput.Type.UPDATED, voterOutput);
+			return voterOutput;
+		});
 	}
 
 	public GenericOutput delete(Long voterId) {
@@ -91,14 +252,44 @@ public class VoterService {
 
 		verifyVote(voterId);
 
-		Voter voter = voterRepository.findById(voterId).orElse(null);
-		if (voter == null) {
-			throw new GenericOutputException(MESSAGE_VOTER_NOT_FOUND);
+		return voterChangeLog.inOrder(Collections.singleton(voterId), () -> {
+			if (voterRepository.removeById(voterId) == 0) {
+				throw new GenericOutputException(MESSAGE_VOTER_NOT_FOUND);
+			}
+			loginService.invalidateSessions(voterId);
+			voterChangeLog.append(VoterChangeOutput.Type.DELETED, deletedVoter(voterId));
+
+			return new GenericOutput("Voter deleted");
+		});
+	}
+
+	public GenericOutput deleteAll(List<Long> voterIds) {
+		if (voterIds == null || voterIds.isEmpty() || voterIds.contains(null)) {
+			throw new GenericOutputException(MESSAGE_INVALID_ID);
 		}
 
-		voterRepository.delete(voter);
+		Set<Long> ids = new HashSet<>(voterIds);
+		verifyVotes(ids);
+
+		return voterChangeLog.inOrder(ids, () -> {
+			try {
+				voterRepository.removeAllById(ids);
+			} catch (IncorrectResultSizeDataAccessException e) {
+				throw new GenericOutputException(MESSAGE_VOTER_NOT_FOUND);
+			}
+			loginService.invalidateSessions(ids);
+			for (Long voterId : ids) {
+				voterChangeLog.append(VoterChangeOutput.Type.DELETED, deletedVoter(voterId));
+			}
+
+			return new GenericOutput(ids.size() + " voters deleted");
+		});
+	}
 
-		return new GenericOutput("Voter deleted");
+	private static VoterOutput deletedVoter(Long voterId) {
+		VoterOutput voterOutput = new VoterOutput();
+		voterOutput.setId(voterId);
+		return voterOutput;
 	}
 
 	private void verifyVote(Long voterId) {
@@ -108,28 +299,40 @@ public class VoterService {
 				throw new GenericOutputException("Already exists votes.");
 			}
 		} catch (FeignException e) {
-			if (e.status() != 500) {
-				throw new GenericOutputException("Error");
+			throw voteServiceError(e);
+		}
+	}
+
+	private void verifyVotes(Collection<Long> voterIds) {
+
+		try {
+			if (!voteClientService.findVotersWithVotes(voterIds).isEmpty()) {
+				throw new GenericOutputException("Already exists votes.");
 			}
+		} catch (FeignException e) {
+			throw voteServiceError(e);
+		}
+	}
+
+	private RuntimeException voteServiceError(FeignException e) {
+		if (e.status() <= 0 || e.status() >= 500) {
+			return new ServiceUnavailableException("Vote service unavailable");
+		}
+		return new GenericOutputException("Error");
+	}
+
+	void validateInput(VoterInput voterInput, boolean isUpdate, VoterRepository voterRepository) {
+		validateFields(voterInput, isUpdate);
+		if (Voter.verifyEmail(voterInput.getEmail(), voterRepository)) {
+			throw new GenericOutputException(MESSAGE_DUPLICATE_EMAIL);
 		}
 	}
 
-	private void validateInput(VoterInput voterInput, boolean isUpdate, VoterRepository voterRepository) {
+	static void validateFields(VoterInput voterInput, boolean isUpdate) {
 		if (StringUtils.isBlank(voterInput.getEmail())) {
 			throw new GenericOutputException("Invalid email");
-		} else {
-			if (Voter.verifyEmail(voterInput.getEmail(), voterRepository)) {
-				throw new GenericOutputException("Duplicate e-mail.");
-			}
-		}
-		if (StringUtils.isBlank(voterInput.getName()) || voterInput.getName().trim().replace(" ", "").length() < 5) {
-			throw new GenericOutputException("Invalid name");
-		} else {
-			String name[] = voterInput.getName().split(" ");
-			if (name.length < 2) {
-				throw new GenericOutputException("Invalid name");
-			}
 		}
+		validateName(voterInput.getName());
 		if (!StringUtils.isBlank(voterInput.getPassword())) {
 			if (!voterInput.getPassword().equals(voterInput.getPasswordConfirm())) {
 				throw new GenericOutputException("Passwords doesn't match");
@@ -141,4 +344,15 @@ public class VoterService {
 		}
 	}
 
+	private static void validateName(String voterName) {
+		if (StringUtils.isBlank(voterName) || voterName.trim().replace(" ", "").length() < 5) {
+			throw new GenericOutputException("Invalid name");
+		} else {
+			String name[] = voterName.split(" ");
+			if (name.length < 2) {
+				throw new GenericOutputException("Invalid name");
+			}
+		}
+	}
+
 }
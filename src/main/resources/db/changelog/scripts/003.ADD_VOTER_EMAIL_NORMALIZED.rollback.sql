@@ -0,0 +1,2 @@
+drop index ux_voter_email_normalized;
+alter table voter drop column email_normalized;
@@ -0,0 +1,4 @@
+alter table voter add column email_normalized varchar(255);
+update voter set email_normalized = lower(trim(email));
+alter table voter alter column email_normalized set not null;
+create unique index ux_voter_email_normalized on voter (email_normalized);
@@ -0,0 +1,3 @@
+drop index ix_token_expire_date;
+drop index ux_token_token;
+alter table token alter column token varchar(255) not null;
@@ -0,0 +1,4 @@
+delete from token;
+alter table token alter column token varchar(64) not null;
+create unique index ux_token_token on token (token);
+create index ix_token_expire_date on token (expire_date);
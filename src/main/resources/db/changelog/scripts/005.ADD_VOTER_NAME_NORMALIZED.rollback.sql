@@ -0,0 +1,2 @@
+drop index ix_voter_name_normalized;
+alter table voter drop column name_normalized;
@@ -0,0 +1,4 @@
+alter table voter add column name_normalized varchar(255);
+update voter set name_normalized = lower(trim(name));
+alter table voter alter column name_normalized set not null;
+create index ix_voter_name_normalized on voter (name_normalized, id);
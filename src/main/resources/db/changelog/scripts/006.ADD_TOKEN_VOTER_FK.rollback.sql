@@ -0,0 +1 @@
+alter table token drop constraint fk_token_voter;
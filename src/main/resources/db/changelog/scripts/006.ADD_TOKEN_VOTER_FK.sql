@@ -0,0 +1,2 @@
+delete from token where voter_id not in (select id from voter);
+alter table token add constraint fk_token_voter foreign key (voter_id) references voter (id) on delete cascade;
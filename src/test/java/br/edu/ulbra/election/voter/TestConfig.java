@@ -1,10 +1,25 @@
 package br.edu.ulbra.election.voter;
 
+import br.edu.ulbra.election.voter.repository.TokenRepository;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @TestConfiguration
 @ComponentScan(basePackages = {"br.edu.ulbra.election.voter"})
+@ImportAutoConfiguration(FeignAutoConfiguration.class)
+@MockBean({TokenRepository.class, VoterJdbcRepository.class, PlatformTransactionManager.class})
 public class TestConfig {
 
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
 }
@@ -0,0 +1,249 @@
+package br.edu.ulbra.election.voter.api.v1;
+
+import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.config.AsyncConfig;
+import br.edu.ulbra.election.voter.exception.GenericOutputException;
+import br.edu.ulbra.election.voter.metrics.ErrorMetricsResolver;
+import br.edu.ulbra.election.voter.output.v1.GenericOutput;
+import br.edu.ulbra.election.voter.service.VoterChangeStream;
+import br.edu.ulbra.election.voter.service.VoterExportService;
+import br.edu.ulbra.election.voter.service.VoterImportService;
+import br.edu.ulbra.election.voter.service.VoterService;
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.NestedServletException;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class VoterApiAsyncTest {
+
+    private static final String URL_ASYNC = "/v1/voter/async/";
+
+    private final Gson gson = new Gson();
+
+    private VoterService voterService;
+
+    private VoterChangeStream voterChangeStream;
+
+    private ExecutorService voterExecutor;
+
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        voterService = Mockito.mock(VoterService.class);
+        voterChangeStream = Mockito.mock(VoterChangeStream.class);
+        // one worker and one queued task, so the third concurrent request is rejected
+        meterRegistry = new SimpleMeterRegistry();
+        voterExecutor = new AsyncConfig().voterExecutor(1, 1, false, meterRegistry);
+        VoterApi voterApi = new VoterApi(voterService, Mockito.mock(VoterImportService.class), voterChangeStream,
+                Mockito.mock(VoterExportService.class), voterExecutor, 5000);
+        ExceptionHandlerExceptionResolver exceptionHandlers = new ExceptionHandlerExceptionResolver();
+        exceptionHandlers.afterPropertiesSet();
+        mockMvc = MockMvcBuilders.standaloneSetup(voterApi)
+                .setHandlerExceptionResolvers(new ErrorMetricsResolver(meterRegistry), exceptionHandlers, new ResponseStatusExceptionResolver(),
+                        new DefaultHandlerExceptionResolver())
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        voterExecutor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCreateAsync() throws Exception {
+        given(voterService.create(any()))
+                .willReturn(VoterBuilder.getVoterOutput());
+
+        MvcResult mvcResult = mockMvc.perform(post(URL_ASYNC)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(gson.toJson(VoterBuilder.getVoterInput())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", equalTo(1)))
+                .andExpect(jsonPath("$.email", equalTo("test@test.com")));
+    }
+
+    @Test
+    public void shouldPassServiceErrorUnwrapped() throws Exception {
+        given(voterService.delete(anyLong()))
+                .willThrow(new GenericOutputException("Voter not found"));
+
+        MvcResult mvcResult = mockMvc.perform(delete(URL_ASYNC + "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Object result = mvcResult.getAsyncResult(5000);
+        Assert.assertTrue(result instanceof GenericOutputException);
+        Assert.assertEquals("Voter not found", ((GenericOutputException) result).getMessage());
+    }
+
+    @Test
+    public void shouldCountServiceErrorAfterAsyncDispatch() throws Exception {
+        given(voterService.delete(anyLong()))
+                .willThrow(new GenericOutputException("Voter not found"));
+
+        MvcResult mvcResult = mockMvc.perform(delete(URL_ASYNC + "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvcResult.getAsyncResult(5000);
+
+        try {
+            mockMvc.perform(asyncDispatch(mvcResult));
+            Assert.fail();
+        } catch (NestedServletException e) {
+            Assert.assertTrue(e.getCause() instanceof GenericOutputException);
+        }
+        Assert.assertEquals(1.0, meterRegistry.counter(ErrorMetricsResolver.ERRORS, "reason", "Voter not found").count(), 0.0);
+    }
+
+    @Test
+    public void shouldCompleteWhenServiceThrowsError() throws Exception {
+        given(voterService.delete(anyLong()))
+                .willThrow(new StackOverflowError());
+
+        MvcResult mvcResult = mockMvc.perform(delete(URL_ASYNC + "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Assert.assertTrue(mvcResult.getAsyncResult(5000) instanceof StackOverflowError);
+    }
+
+    @Test
+    public void shouldAnswerServiceUnavailableWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(voterService.delete(anyLong())).willAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new GenericOutput("Voter deleted");
+        });
+
+        try {
+            mockMvc.perform(delete(URL_ASYNC + "1")).andExpect(request().asyncStarted());
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            mockMvc.perform(delete(URL_ASYNC + "2")).andExpect(request().asyncStarted());
+
+            mockMvc.perform(delete(URL_ASYNC + "3"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldAnswerAcceptedWhenRunningWriteTimesOut() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(voterService.create(any())).willAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return VoterBuilder.getVoterOutput();
+        });
+
+        try {
+            MvcResult mvcResult = mockMvc.perform(post(URL_ASYNC)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(gson.toJson(VoterBuilder.getVoterInput())))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            timeOut(mvcResult);
+
+            // the create may still commit, so a 503 would invite a retry that fails with a duplicate e-mail
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.message", equalTo(AsyncSupport.MESSAGE_STILL_RUNNING)));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldDropQueuedWriteThatTimesOut() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(voterService.delete(1L)).willAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new GenericOutput("Voter deleted");
+        });
+
+        MvcResult queued;
+        try {
+            mockMvc.perform(delete(URL_ASYNC + "1")).andExpect(request().asyncStarted());
+            Assert.assertTrue(running.await(5, TimeUnit.SECONDS));
+            queued = mockMvc.perform(delete(URL_ASYNC + "2"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            timeOut(queued);
+        } finally {
+            release.countDown();
+        }
+
+        mockMvc.perform(asyncDispatch(queued))
+                .andExpect(status().isServiceUnavailable());
+        // the worker is free again; the dropped delete must not run after the client was told to retry
+        mockMvc.perform(delete(URL_ASYNC + "3")).andExpect(request().asyncStarted()).andReturn().getAsyncResult(5000);
+        Mockito.verify(voterService, Mockito.never()).delete(2L);
+    }
+
+    @Test
+    public void shouldResumeChangeStreamFromLastEventId() throws Exception {
+        given(voterChangeStream.subscribe(anyLong()))
+                .willReturn(new SseEmitter());
+
+        mockMvc.perform(get("/v1/voter/changes/stream?after=2").header("Last-Event-ID", "7"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/v1/voter/changes/stream?after=2"))
+                .andExpect(request().asyncStarted());
+
+        Mockito.verify(voterChangeStream).subscribe(7L);
+        Mockito.verify(voterChangeStream).subscribe(2L);
+    }
+
+    private static void timeOut(MvcResult mvcResult) throws IOException {
+        MockAsyncContext asyncContext = (MockAsyncContext) mvcResult.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+    }
+}
@@ -3,6 +3,8 @@ package br.edu.ulbra.election.voter.api.v1;
 import br.edu.ulbra.election.voter.TestConfig;
 import br.edu.ulbra.election.voter.builder.VoterBuilder;
 import br.edu.ulbra.election.voter.output.v1.GenericOutput;
+import br.edu.ulbra.election.voter.repository.VoterRepository;
+import br.edu.ulbra.election.voter.service.VoterImportService;
 import br.edu.ulbra.election.voter.service.VoterService;
 import com.google.gson.Gson;
 import org.junit.Test;
@@ -37,6 +39,13 @@ public class VoterApiTest {
     @MockBean
     private VoterService voterService;
 
+    @MockBean
+    private VoterImportService voterImportService;
+
+    // LoginService is scanned in too and needs one
+    @MockBean
+    private VoterRepository voterRepository;
+
     private final Gson gson = new Gson();
     private String URL_BASE = "/v1/voter/";
 
@@ -68,7 +77,7 @@ public class VoterApiTest {
         given(voterService.create(any()))
                 .willReturn(VoterBuilder.getVoterOutput());
 
-        mockMvc.perform(put(URL_BASE)
+        mockMvc.perform(post(URL_BASE)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(gson.toJson(VoterBuilder.getVoterInput()))
         )
@@ -83,7 +92,7 @@ public class VoterApiTest {
         given(voterService.update(anyLong(), any()))
                 .willReturn(VoterBuilder.getVoterOutput());
 
-        mockMvc.perform(post(URL_BASE + "1")
+        mockMvc.perform(put(URL_BASE + "1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(gson.toJson(VoterBuilder.getVoterInput()))
         )
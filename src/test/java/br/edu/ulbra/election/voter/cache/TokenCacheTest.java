@@ -0,0 +1,102 @@
+package br.edu.ulbra.election.voter.cache;
+
+import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+
+public class TokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenCache tokenCache;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new TokenCache(100, meterRegistry);
+    }
+
+    @Test
+    public void shouldEvictOnlyTheVoter() {
+        tokenCache.put("a", voter(1L), expireDate(), tokenCache.beginLookup());
+        tokenCache.put("b", voter(2L), expireDate(), tokenCache.beginLookup());
+
+        tokenCache.evictVoter(1L);
+
+        Assert.assertNull(tokenCache.get("a"));
+        Assert.assertNotNull(tokenCache.get("b"));
+        Assert.assertEquals(1.0, meterRegistry.get("cache.invalidations").counter().count(), 0.0);
+    }
+
+    @Test
+    public void shouldReplacePreviousTokenOfVoter() {
+        tokenCache.put("a", voter(1L), expireDate(), tokenCache.beginLookup());
+        tokenCache.put("c", voter(1L), expireDate(), tokenCache.beginLookup());
+
+        Assert.assertNull(tokenCache.get("a"));
+        tokenCache.evictVoter(1L);
+        Assert.assertNull(tokenCache.get("c"));
+    }
+
+    @Test
+    public void shouldDropLookupThatRacedWithEviction() {
+        // checkToken read the old token from the database, then a login replaced it and evicted the voter
+        long lookupStarted = tokenCache.beginLookup();
+        tokenCache.evictVoter(1L);
+        tokenCache.put("a", voter(1L), expireDate(), lookupStarted);
+
+        Assert.assertNull(tokenCache.get("a"));
+    }
+
+    @Test
+    public void shouldKeepLookupWhenAnotherVoterIsEvicted() {
+        long lookupStarted = tokenCache.beginLookup();
+        tokenCache.evictVoter(2L);
+        tokenCache.put("a", voter(1L), expireDate(), lookupStarted);
+
+        Assert.assertNotNull(tokenCache.get("a"));
+    }
+
+    @Test
+    public void shouldNeverKeepStaleTokenWhenEvictionRunsConcurrently() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            String token = "t" + i;
+            long lookupStarted = tokenCache.beginLookup();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread evict = new Thread(() -> {
+                awaitQuietly(start);
+                tokenCache.evictVoter(1L);
+            });
+            evict.start();
+            start.countDown();
+            tokenCache.put(token, voter(1L), expireDate(), lookupStarted);
+            evict.join();
+
+            Assert.assertNull(token, tokenCache.get(token));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static VoterOutput voter(Long id) {
+        VoterOutput voterOutput = VoterBuilder.getVoterOutput();
+        voterOutput.setId(id);
+        return voterOutput;
+    }
+
+    private static Date expireDate() {
+        return new Date(System.currentTimeMillis() + 60000);
+    }
+}
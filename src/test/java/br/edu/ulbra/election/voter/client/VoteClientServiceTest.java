@@ -0,0 +1,169 @@
+package br.edu.ulbra.election.voter.client;
+
+import br.edu.ulbra.election.voter.config.VoteClientConfig;
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
+import feign.Feign;
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+public class VoteClientServiceTest {
+
+    private VoteServiceStub voteServiceStub;
+
+    private VoteClientService voteClientService;
+
+    @Before
+    public void setUp() throws Exception {
+        voteServiceStub = VoteServiceStub.start();
+        voteClientService = buildService(buildClient(new Request.Options()), 10);
+    }
+
+    @After
+    public void tearDown() {
+        voteServiceStub.close();
+    }
+
+    private VoteClientService.VoteClient buildClient(Request.Options options) {
+        ObjectFactory<HttpMessageConverters> converters = HttpMessageConverters::new;
+        return Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(converters)))
+                .options(options)
+                // Spring Cloud's default, like the production client
+                .retryer(Retryer.NEVER_RETRY)
+                .target(VoteClientService.VoteClient.class, voteServiceStub.getUrl());
+    }
+
+    private VoteClientService buildService(VoteClientService.VoteClient voteClient, int maxConcurrentCalls) {
+        // the production registries, so the shipped failure classification is what gets tested
+        VoteClientConfig config = new VoteClientConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new VoteClientService(voteClient,
+                config.circuitBreakerRegistry(50, 4, 1, 1000, meterRegistry),
+                config.bulkheadRegistry(maxConcurrentCalls, 0, meterRegistry),
+                2, 100, 60);
+    }
+
+    @Test
+    public void shouldQueryVotesInBatches() {
+        voteServiceStub.addVote(2L);
+        voteServiceStub.addVote(5L);
+
+        Set<Long> voted = voteClientService.findVotersWithVotes(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+
+        Assert.assertEquals(2, voted.size());
+        Assert.assertTrue(voted.contains(2L));
+        Assert.assertTrue(voted.contains(5L));
+        Assert.assertEquals(3, voteServiceStub.getRequestCount());
+    }
+
+    @Test
+    public void shouldCacheVotersWithVotes() {
+        voteServiceStub.addVote(2L);
+
+        Assert.assertTrue(voteClientService.verifyVoter(2L));
+        Assert.assertTrue(voteClientService.verifyVoter(2L));
+        Assert.assertEquals(Collections.singleton(2L), voteClientService.findVotersWithVotes(Collections.singletonList(2L)));
+        Assert.assertEquals(1, voteServiceStub.getRequestCount());
+    }
+
+    @Test
+    public void shouldNotCacheVotersWithoutVotes() {
+        Assert.assertFalse(voteClientService.verifyVoter(1L));
+        Assert.assertFalse(voteClientService.verifyVoter(1L));
+        Assert.assertEquals(2, voteServiceStub.getRequestCount());
+    }
+
+    @Test
+    public void shouldOpenCircuitAndProbeAfterWait() throws Exception {
+        voteServiceStub.setFailureStatus(500);
+        for (int i = 0; i < 4; i++) {
+            try {
+                voteClientService.verifyVoter(1L);
+                Assert.fail();
+            } catch (FeignException e) {
+                Assert.assertEquals(500, e.status());
+            }
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, voteClientService.getCircuitBreakerState());
+
+        try {
+            voteClientService.verifyVoter(1L);
+            Assert.fail();
+        } catch (ServiceUnavailableException e) {
+            Assert.assertEquals(4, voteServiceStub.getRequestCount());
+        }
+
+        voteServiceStub.setFailureStatus(0);
+        Thread.sleep(1100);
+        Assert.assertFalse(voteClientService.verifyVoter(1L));
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, voteClientService.getCircuitBreakerState());
+    }
+
+    @Test
+    public void shouldNotOpenCircuitOnClientErrors() {
+        voteServiceStub.setFailureStatus(404);
+        for (int i = 0; i < 8; i++) {
+            try {
+                voteClientService.verifyVoter(1L);
+                Assert.fail();
+            } catch (FeignException e) {
+                Assert.assertEquals(404, e.status());
+            }
+        }
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, voteClientService.getCircuitBreakerState());
+        Assert.assertEquals(8, voteServiceStub.getRequestCount());
+    }
+
+    @Test
+    public void shouldRejectCallsBeyondBulkhead() {
+        voteClientService = buildService(buildClient(new Request.Options()), 1);
+        voteServiceStub.setLatencyMillis(500);
+
+        CompletableFuture<Boolean> slowCall = CompletableFuture.supplyAsync(() -> voteClientService.verifyVoter(1L));
+        while (voteServiceStub.getRequestCount() == 0) {
+            Thread.yield();
+        }
+        try {
+            voteClientService.verifyVoter(2L);
+            Assert.fail();
+        } catch (ServiceUnavailableException e) {
+            Assert.assertFalse(slowCall.join());
+        }
+    }
+
+    @Test
+    public void shouldTimeOutSlowVoteServiceAndOpenCircuit() {
+        voteClientService = buildService(buildClient(new Request.Options(100, 100)), 10);
+        voteServiceStub.setLatencyMillis(1000);
+        for (int i = 0; i < 4; i++) {
+            try {
+                voteClientService.verifyVoter(1L);
+                Assert.fail();
+            } catch (RetryableException e) {
+                // read timed out
+            }
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, voteClientService.getCircuitBreakerState());
+    }
+}
@@ -0,0 +1,135 @@
+package br.edu.ulbra.election.voter.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class VoteServiceStub implements AutoCloseable {
+
+    private static final String PATH = "/v1/vote/";
+    private static final String BATCH_PATH = PATH + "voters";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<Long> votersWithVotes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile long latencyMillis;
+    private volatile int failureStatus;
+
+    private VoteServiceStub(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        VoteServiceStub stub = start(args.length > 0 ? Integer.parseInt(args[0]) : 8084);
+        stub.setLatencyMillis(Long.getLong("stub.latency-millis", 0L));
+        stub.setFailureStatus(Integer.getInteger("stub.failure-status", 0));
+        System.out.println("Vote service stub listening on " + stub.getUrl());
+    }
+
+    public static VoteServiceStub start() throws IOException {
+        return start(0);
+    }
+
+    public static VoteServiceStub start(int port) throws IOException {
+        return new VoteServiceStub(port);
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void addVote(Long voterId) {
+        votersWithVotes.add(voterId);
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setFailureStatus(int failureStatus) {
+        this.failureStatus = failureStatus;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            serve(exchange);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failureStatus > 0) {
+            respond(exchange, failureStatus, "{\"message\":\"injected failure\"}");
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        if ("POST".equals(exchange.getRequestMethod()) && BATCH_PATH.equals(path)) {
+            List<Long> ids = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<List<Long>>() {
+            });
+            Set<Long> voted = ids.stream().filter(votersWithVotes::contains).collect(Collectors.toSet());
+            respond(exchange, 200, objectMapper.writeValueAsString(voted));
+        } else if ("GET".equals(exchange.getRequestMethod())) {
+            Long voterId = Long.valueOf(path.substring(PATH.length()));
+            respond(exchange, 200, String.valueOf(votersWithVotes.contains(voterId)));
+        } else {
+            respond(exchange, 404, "{}");
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package br.edu.ulbra.election.voter.config;
+
+import br.edu.ulbra.election.voter.api.v1.LoginApi;
+import br.edu.ulbra.election.voter.cache.TokenCache;
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.ratelimit.LoginThrottle;
+import br.edu.ulbra.election.voter.repository.TokenRepository;
+import br.edu.ulbra.election.voter.repository.VoterRepository;
+import br.edu.ulbra.election.voter.service.LoginService;
+import br.edu.ulbra.election.voter.service.SignedTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BoundedPasswordEncoderTest {
+
+    private static final long TIMEOUT_MILLIS = 200;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordEncoder delegate;
+
+    private BoundedPasswordEncoder encoder;
+
+    @Before
+    public void setUp() {
+        // every hash blocks until the test releases it
+        delegate = Mockito.mock(PasswordEncoder.class);
+        given(delegate.encode(any())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "hashed";
+        });
+        given(delegate.matches(any(), anyString())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    // one hashing thread and one queued hash
+    private void createEncoder(long timeoutMillis) {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, timeoutMillis, meterRegistry);
+    }
+
+    @Test
+    public void shouldRejectAtOnceWhenQueueIsFull() throws Exception {
+        // long enough that the held hashes do not time out during the test
+        createEncoder(5000);
+        occupyPool();
+
+        long start = System.nanoTime();
+        try {
+            encoder.encode("password");
+            Assert.fail();
+        } catch (ServiceUnavailableException e) {
+            Assert.assertEquals("Password hashing capacity exceeded", e.getMessage());
+        }
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        Assert.assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count(), 0.0);
+    }
+
+    @Test
+    public void shouldStopWaitingAfterTimeout() {
+        createEncoder(TIMEOUT_MILLIS);
+        long start = System.nanoTime();
+        try {
+            encoder.matches("password", "hashed");
+            Assert.fail();
+        } catch (ServiceUnavailableException e) {
+            Assert.assertEquals("Password hashing capacity exceeded", e.getMessage());
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue(String.valueOf(elapsedMillis), elapsedMillis >= TIMEOUT_MILLIS && elapsedMillis < 5000);
+        Assert.assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count(), 0.0);
+    }
+
+    @Test
+    public void shouldHashWhenCapacityIsAvailable() {
+        createEncoder(TIMEOUT_MILLIS);
+        release.countDown();
+
+        Assert.assertEquals("hashed", encoder.encode("password"));
+        Assert.assertEquals(1L, meterRegistry.get("password.hashing").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    public void shouldAnswerServiceUnavailableWhenHashingIsSaturated() throws Exception {
+        createEncoder(5000);
+        VoterRepository voterRepository = Mockito.mock(VoterRepository.class);
+        given(voterRepository.loadByEmailNormalized(anyString())).willReturn(new Voter());
+        LoginService loginService = new LoginService(voterRepository, Mockito.mock(TokenRepository.class), encoder,
+                Mockito.mock(TokenCache.class), Mockito.mock(SignedTokenService.class), "database", 60000);
+        LoginApi loginApi = new LoginApi(loginService, callers, Mockito.mock(LoginThrottle.class), 5000);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(loginApi)
+                .setHandlerExceptionResolvers(new ResponseStatusExceptionResolver())
+                .build();
+        occupyPool();
+
+        mockMvc.perform(post("/login/v1/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"voter@test.com\",\"password\":\"password\"}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    // one hash running and one queued, both held until the test ends
+    private void occupyPool() throws InterruptedException {
+        callers.execute(() -> encodeQuietly());
+        awaitActive(1);
+        callers.execute(() -> encodeQuietly());
+        awaitQueued(1);
+    }
+
+    private void encodeQuietly() {
+        try {
+            encoder.encode("password");
+        } catch (ServiceUnavailableException e) {
+            // timed out while the test holds the pool
+        }
+    }
+
+    private void awaitActive(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("password.hashing.active").gauge().value() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitQueued(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("password.hashing.queue").gauge().value() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
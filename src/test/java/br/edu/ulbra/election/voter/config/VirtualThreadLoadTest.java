@@ -0,0 +1,95 @@
+package br.edu.ulbra.election.voter.config;
+
+import br.edu.ulbra.election.voter.VoterApplication;
+import br.edu.ulbra.election.voter.client.VoteServiceStub;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = VoterApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "virtual-threads.enabled=true",
+        "server.tomcat.max-threads=" + VirtualThreadLoadTest.MAX_THREADS,
+        "vote-service.bulkhead.max-concurrent-calls=" + VirtualThreadLoadTest.REQUESTS,
+        "spring.datasource.url=jdbc:h2:mem:virtual-thread-load;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "scheduling.enabled=false"})
+public class VirtualThreadLoadTest {
+
+    static final int MAX_THREADS = 10;
+    static final int REQUESTS = 200;
+    private static final long VOTE_SERVICE_LATENCY_MILLIS = 500;
+
+    private static VoteServiceStub voteServiceStub;
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeClass
+    public static void startVoteService() throws Exception {
+        Assume.assumeTrue("virtual threads need Java 21+", VirtualThreads.isSupported());
+        voteServiceStub = VoteServiceStub.start();
+        voteServiceStub.setLatencyMillis(VOTE_SERVICE_LATENCY_MILLIS);
+        System.setProperty("url.vote-service", voteServiceStub.getUrl());
+    }
+
+    @AfterClass
+    public static void stopVoteService() {
+        System.clearProperty("url.vote-service");
+        if (voteServiceStub != null) {
+            voteServiceStub.close();
+        }
+    }
+
+    @Test
+    public void shouldServeMoreConcurrentDeletesThanTomcatThreads() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<Integer>> responses = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                // unknown voters: each delete waits on the vote service, then fails with "Voter not found"
+                long voterId = 1_000_000L + i;
+                responses.add(clients.submit(() -> delete(voterId)));
+            }
+            for (Future<Integer> response : responses) {
+                Assert.assertEquals(500, response.get().intValue());
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            int concurrent = voteServiceStub.getMaxConcurrentRequests();
+            String summary = String.format("%d requests in %d ms, %d concurrent vote-service calls with %d tomcat threads",
+                    REQUESTS, elapsedMillis, concurrent, MAX_THREADS);
+            Assert.assertTrue(summary + ": concurrency should exceed the thread cap", concurrent > MAX_THREADS * 5);
+            // with one request per Tomcat thread this would take at least REQUESTS / MAX_THREADS round trips
+            Assert.assertTrue(summary + ": too slow for unblocked request threads",
+                    elapsedMillis < REQUESTS / MAX_THREADS * VOTE_SERVICE_LATENCY_MILLIS);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private int delete(long voterId) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/v1/voter/async/" + voterId).openConnection();
+        connection.setRequestMethod("DELETE");
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
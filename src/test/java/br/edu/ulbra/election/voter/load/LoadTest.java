@@ -0,0 +1,279 @@
+package br.edu.ulbra.election.voter.load;
+
+import br.edu.ulbra.election.voter.VoterApplication;
+import br.edu.ulbra.election.voter.client.VoteServiceStub;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-loop load generator, run with {@code ./gradlew loadTest}. Starts the application on a file H2 database
+ * seeded with {@code load.voters} voters and a {@link VoteServiceStub}, then sends {@code load.rate} requests per
+ * second for {@code load.duration-seconds}, picking operations by the weights in {@code load.mix}. Latency is
+ * measured from the time a request was scheduled, so a stalled server shows up in the percentiles.
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "load-test";
+
+    enum Operation {
+        REGISTER, LOGIN, CHECK, GET, DELETE
+    }
+
+    private final int voters = Integer.getInteger("load.voters", 10000);
+    private final int rate = Integer.getInteger("load.rate", 100);
+    private final int durationSeconds = Integer.getInteger("load.duration-seconds", 60);
+    private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 10);
+    private final int concurrency = Integer.getInteger("load.concurrency", 200);
+    private final int sessions = Integer.getInteger("load.sessions", 20);
+    private final long voteServiceLatencyMillis = Long.getLong("load.vote-service-latency-millis", 20L);
+    private final String mix = System.getProperty("load.mix", "register=5,login=5,check=50,get=35,delete=5");
+    private final File database = new File(System.getProperty("load.database", "build/load-test/voter"));
+    private final File report = new File(System.getProperty("load.report", "build/reports/load-test.txt"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final List<String> tokens = new ArrayList<>();
+    private final AtomicInteger registered = new AtomicInteger();
+    private final AtomicLong nextDelete = new AtomicLong();
+
+    private Operation[] schedule;
+    private String baseUrl;
+    private volatile boolean recording;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        schedule = parseMix(mix);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3));
+            errors.put(operation, new LongAdder());
+        }
+
+        try (VoteServiceStub voteServiceStub = VoteServiceStub.start()) {
+            voteServiceStub.setLatencyMillis(voteServiceLatencyMillis);
+            ConfigurableApplicationContext context = startApplication(voteServiceStub.getUrl());
+            try {
+                seed(context.getBean(VoterJdbcRepository.class));
+                openSessions();
+                drive(warmupSeconds);
+                recording = true;
+                long elapsed = drive(durationSeconds);
+                writeReport(elapsed);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext startApplication(String voteServiceUrl) {
+        File directory = database.getAbsoluteFile().getParentFile();
+        if (directory.isDirectory()) {
+            for (File file : directory.listFiles((dir, name) -> name.startsWith(database.getName() + "."))) {
+                file.delete();
+            }
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(VoterApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:file:" + database.getAbsolutePath(),
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--url.vote-service=" + voteServiceUrl,
+                "--login-throttle.enabled=false",
+                "--logging.level.root=WARN");
+        baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return context;
+    }
+
+    private void seed(VoterJdbcRepository voterJdbcRepository) {
+        String password = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<Voter> chunk = new ArrayList<>();
+        for (int i = 1; i <= voters; i++) {
+            Voter voter = new Voter();
+            voter.setEmail(email("seed", i));
+            voter.setName("Load Voter " + i);
+            voter.setPassword(password);
+            chunk.add(voter);
+            if (chunk.size() == 1000 || i == voters) {
+                voterJdbcRepository.insertAll(chunk);
+                chunk.clear();
+            }
+        }
+        // deletes walk down from the top of the roll, logins and checks stay on the low ids
+        nextDelete.set(voters);
+    }
+
+    private void openSessions() throws IOException {
+        for (int i = 1; i <= sessions; i++) {
+            Response response = request("POST", "/login/v1/", login(email("seed", i)));
+            tokens.add(objectMapper.readTree(response.body).get("token").asText());
+        }
+    }
+
+    private long drive(int seconds) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * seconds;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            executor.execute(() -> execute(operation, scheduledAt));
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    private void execute(Operation operation, long scheduledAt) {
+        boolean ok;
+        try {
+            ok = send(operation).status == 200;
+        } catch (IOException e) {
+            ok = false;
+        }
+        if (recording) {
+            latencies.get(operation).recordValue(Math.min(System.nanoTime() - scheduledAt, TimeUnit.MINUTES.toNanos(1)));
+            if (!ok) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private Response send(Operation operation) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case REGISTER:
+                String email = email("new", registered.incrementAndGet());
+                return request("POST", "/v1/voter/", "{\"email\":\"" + email + "\",\"name\":\"New Voter\",\"password\":\""
+                        + PASSWORD + "\",\"passwordConfirm\":\"" + PASSWORD + "\"}");
+            case LOGIN:
+                // voters above the session range, so the tokens used by CHECK are not replaced
+                return request("POST", "/login/v1/", login(email("seed", sessions + 1 + random.nextInt(Math.max(1, voters / 2 - sessions)))));
+            case CHECK:
+                return request("GET", "/login/v1/check/" + tokens.get(random.nextInt(tokens.size())), null);
+            case GET:
+                return request("GET", "/v1/voter/" + (1 + random.nextInt(voters / 2)), null);
+            case DELETE:
+                return request("DELETE", "/v1/voter/" + nextDelete.getAndDecrement(), null);
+            default:
+                throw new IllegalStateException(operation.name());
+        }
+    }
+
+    private Response request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, in == null ? "" : read(in));
+        }
+    }
+
+    private void writeReport(long elapsedNanos) throws IOException {
+        report.getAbsoluteFile().getParentFile().mkdirs();
+        try (PrintStream out = new PrintStream(report, "UTF-8")) {
+            print(out, elapsedNanos);
+        }
+        print(System.out, elapsedNanos);
+        System.out.println("Report written to " + report.getAbsolutePath());
+    }
+
+    private void print(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("voters=%d rate=%d/s duration=%ds concurrency=%d mix=%s%n", voters, rate, durationSeconds, concurrency, mix);
+        out.printf("%-9s %9s %8s %10s %9s %9s %9s %9s%n", "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            total += histogram.getTotalCount();
+            out.printf("%-9s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", operation.name().toLowerCase(),
+                    histogram.getTotalCount(), errors.get(operation).sum(), histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        }
+        out.printf("total     %9d %8s %10.1f%n", total, "", total / seconds);
+    }
+
+    private static Operation[] parseMix(String mix) {
+        List<Operation> schedule = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            schedule.addAll(Collections.nCopies(Integer.parseInt(parts[1].trim()), Operation.valueOf(parts[0].trim().toUpperCase())));
+        }
+        return schedule.toArray(new Operation[0]);
+    }
+
+    private static String login(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private static String email(String prefix, int i) {
+        return prefix + i + "@load.test";
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        byte[] buffer = new byte[4096];
+        StringBuilder body = new StringBuilder();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+        }
+        return body.toString();
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
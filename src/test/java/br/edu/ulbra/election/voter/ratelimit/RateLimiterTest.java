@@ -0,0 +1,77 @@
+package br.edu.ulbra.election.voter.ratelimit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private RateLimiter rateLimiter;
+
+    @Before
+    public void setUp() {
+        rateLimiter = new RateLimiter(60, 3, 100, 60, now::get);
+    }
+
+    @Test
+    public void shouldAllowBurstThenReject() {
+        Assert.assertTrue(rateLimiter.tryAcquire("a"));
+        Assert.assertTrue(rateLimiter.tryAcquire("a"));
+        Assert.assertTrue(rateLimiter.tryAcquire("a"));
+        Assert.assertFalse(rateLimiter.tryAcquire("a"));
+        Assert.assertTrue(rateLimiter.tryAcquire("b"));
+    }
+
+    @Test
+    public void shouldRefillAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("a");
+        }
+        Assert.assertFalse(rateLimiter.tryAcquire("a"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertTrue(rateLimiter.tryAcquire("a"));
+        Assert.assertFalse(rateLimiter.tryAcquire("a"));
+    }
+
+    @Test
+    public void shouldExpireIdleBuckets() {
+        rateLimiter.tryAcquire("a");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        rateLimiter.tryAcquire("b");
+        Assert.assertTrue(rateLimiter.size() <= 1);
+    }
+
+    @Test
+    public void shouldNotOverAdmitUnderContention() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 50, 100, 60, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        for (int i = 0; i < 500; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (limiter.tryAcquire("shared")) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(50, admitted.get());
+    }
+}
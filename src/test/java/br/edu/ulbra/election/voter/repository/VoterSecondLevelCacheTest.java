@@ -0,0 +1,110 @@
+package br.edu.ulbra.election.voter.repository;
+
+import br.edu.ulbra.election.voter.VoterApplication;
+import br.edu.ulbra.election.voter.client.VoteServiceStub;
+import br.edu.ulbra.election.voter.input.v1.LoginInput;
+import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.service.LoginService;
+import br.edu.ulbra.election.voter.service.VoterService;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = VoterApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:second-level-cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "scheduling.enabled=false"})
+public class VoterSecondLevelCacheTest {
+
+    private static final String PASSWORD = "12345678";
+
+    private static VoteServiceStub voteServiceStub;
+
+    @Autowired
+    private VoterService voterService;
+
+    @Autowired
+    private LoginService loginService;
+
+    @BeforeClass
+    public static void startVoteService() throws Exception {
+        voteServiceStub = VoteServiceStub.start();
+        System.setProperty("url.vote-service", voteServiceStub.getUrl());
+    }
+
+    @AfterClass
+    public static void stopVoteService() {
+        System.clearProperty("url.vote-service");
+        if (voteServiceStub != null) {
+            voteServiceStub.close();
+        }
+    }
+
+    @Test
+    public void shouldLoginAfterReRegisteringDeletedEmail() {
+        Long id = voterService.create(voterInput("deleted@test.com")).getId();
+        // caches the e-mail -> id lookup
+        loginService.login(loginInput("deleted@test.com"));
+
+        voterService.delete(id);
+        voterService.create(voterInput("deleted@test.com"));
+
+        Assert.assertNotNull(loginService.login(loginInput("deleted@test.com")).getToken());
+    }
+
+    @Test
+    public void shouldLoginAfterReRegisteringBulkDeletedEmail() {
+        Long first = voterService.create(voterInput("bulk1@test.com")).getId();
+        Long second = voterService.create(voterInput("bulk2@test.com")).getId();
+        loginService.login(loginInput("bulk1@test.com"));
+        loginService.login(loginInput("bulk2@test.com"));
+
+        voterService.deleteAll(Arrays.asList(first, second));
+        voterService.create(voterInput("bulk2@test.com"));
+
+        Assert.assertNotNull(loginService.login(loginInput("bulk2@test.com")).getToken());
+    }
+
+    @Test
+    public void shouldRejectOldEmailAfterPatch() {
+        Long id = voterService.create(voterInput("before@test.com")).getId();
+        loginService.login(loginInput("before@test.com"));
+
+        VoterInput patch = new VoterInput();
+        patch.setEmail("after@test.com");
+        voterService.patch(id, patch);
+
+        Assert.assertNotNull(loginService.login(loginInput("after@test.com")).getToken());
+        try {
+            loginService.login(loginInput("before@test.com"));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("Invalid Credentials", e.getMessage());
+        }
+    }
+
+    private VoterInput voterInput(String email) {
+        VoterInput voterInput = new VoterInput();
+        voterInput.setEmail(email);
+        voterInput.setName("Cached Voter");
+        voterInput.setPassword(PASSWORD);
+        voterInput.setPasswordConfirm(PASSWORD);
+        return voterInput;
+    }
+
+    private LoginInput loginInput(String email) {
+        LoginInput loginInput = new LoginInput();
+        loginInput.setEmail(email);
+        loginInput.setPassword(PASSWORD);
+        return loginInput;
+    }
+}
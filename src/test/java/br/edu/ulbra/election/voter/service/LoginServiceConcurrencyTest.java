@@ -0,0 +1,89 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.VoterApplication;
+import br.edu.ulbra.election.voter.input.v1.LoginInput;
+import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.output.v1.LoginOutput;
+import br.edu.ulbra.election.voter.repository.TokenRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = VoterApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-concurrency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // every login queues for bcrypt at once; this test is about the upsert, not hashing capacity
+        "password-hashing.timeout-millis=60000",
+        "scheduling.enabled=false"})
+public class LoginServiceConcurrencyTest {
+
+    private static final int LOGINS = 16;
+    private static final String PASSWORD = "12345678";
+
+    @Autowired
+    private VoterService voterService;
+
+    @Autowired
+    private LoginService loginService;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void shouldUpsertOneTokenForParallelLogins() throws Exception {
+        VoterInput voterInput = new VoterInput();
+        voterInput.setEmail("concurrent@test.com");
+        voterInput.setName("Concurrent Voter");
+        voterInput.setPassword(PASSWORD);
+        voterInput.setPasswordConfirm(PASSWORD);
+        voterService.create(voterInput);
+
+        LoginInput loginInput = new LoginInput();
+        loginInput.setEmail(voterInput.getEmail());
+        loginInput.setPassword(PASSWORD);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(LOGINS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LoginOutput>> logins = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            logins.add(executor.submit((Callable<LoginOutput>) () -> {
+                start.await();
+                return loginService.login(loginInput);
+            }));
+        }
+        start.countDown();
+        String lastToken = null;
+        for (Future<LoginOutput> login : logins) {
+            lastToken = login.get().getToken();
+        }
+        executor.shutdown();
+        long statements = statistics.getPrepareStatementCount();
+
+        // one voter lookup and one MERGE per login, no read-before-write
+        Assert.assertEquals(2L * LOGINS, statements);
+        Assert.assertEquals(1, tokenRepository.count());
+        Assert.assertNotNull(lastToken);
+    }
+}
@@ -0,0 +1,52 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.cache.TokenCache;
+import br.edu.ulbra.election.voter.repository.TokenRepository;
+import br.edu.ulbra.election.voter.repository.VoterRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+
+public class LoginServiceTest {
+
+    private TokenCache tokenCache;
+
+    private SignedTokenService signedTokenService;
+
+    @Before
+    public void setUp() {
+        tokenCache = Mockito.mock(TokenCache.class);
+        signedTokenService = Mockito.mock(SignedTokenService.class);
+    }
+
+    @Test
+    public void shouldNotRevokeSignedTokensInDatabaseMode() {
+        LoginService loginService = loginService("database");
+
+        loginService.invalidateSessions(1L);
+        loginService.invalidateSessions(Arrays.asList(2L, 3L));
+
+        Mockito.verify(tokenCache).evictVoter(1L);
+        Mockito.verify(tokenCache).evictVoter(2L);
+        Mockito.verify(tokenCache).evictVoter(3L);
+        Mockito.verifyZeroInteractions(signedTokenService);
+    }
+
+    @Test
+    public void shouldRevokeBulkDeletesInOneBatch() {
+        LoginService loginService = loginService("signed");
+
+        loginService.invalidateSessions(Arrays.asList(2L, 3L));
+
+        Mockito.verify(signedTokenService).revokeAll(Arrays.asList(2L, 3L));
+        Mockito.verify(signedTokenService, Mockito.never()).revoke(Mockito.anyLong());
+    }
+
+    private LoginService loginService(String tokenMode) {
+        return new LoginService(Mockito.mock(VoterRepository.class), Mockito.mock(TokenRepository.class), Mockito.mock(PasswordEncoder.class),
+                tokenCache, signedTokenService, tokenMode, 60000);
+    }
+}
@@ -0,0 +1,70 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.model.Voter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class SignedTokenServiceTest {
+
+    private static final int MAXIMUM_REVOCATIONS = 3;
+
+    private SignedTokenService signedTokenService;
+
+    @Before
+    public void setUp() {
+        signedTokenService = new SignedTokenService("secret", MAXIMUM_REVOCATIONS, 60000);
+    }
+
+    @Test
+    public void shouldRejectRevokedVoter() throws InterruptedException {
+        SignedTokenService.Claims claims = signedTokenService.verify(issue(1L));
+        Thread.sleep(2);
+        signedTokenService.revoke(1L);
+
+        Assert.assertTrue(signedTokenService.isRevoked(claims));
+        Assert.assertFalse(signedTokenService.isRevoked(signedTokenService.verify(issue(2L))));
+    }
+
+    @Test
+    public void shouldKeepRejectingWhenRevocationsOverflow() throws InterruptedException {
+        SignedTokenService.Claims first = signedTokenService.verify(issue(1L));
+        SignedTokenService.Claims other = signedTokenService.verify(issue(100L));
+        Thread.sleep(2);
+        for (long voterId = 1; voterId <= MAXIMUM_REVOCATIONS * 10; voterId++) {
+            signedTokenService.revoke(voterId);
+        }
+
+        Assert.assertTrue(signedTokenService.isRevoked(first));
+        Assert.assertTrue(signedTokenService.isRevoked(other));
+        Thread.sleep(2);
+        Assert.assertFalse(signedTokenService.isRevoked(signedTokenService.verify(issue(1L))));
+    }
+
+    @Test
+    public void shouldRevokeBatchWithoutCutOff() throws InterruptedException {
+        SignedTokenService.Claims deleted = signedTokenService.verify(issue(1L));
+        SignedTokenService.Claims other = signedTokenService.verify(issue(100L));
+        Thread.sleep(2);
+        List<Long> voterIds = new ArrayList<>();
+        for (long voterId = 1; voterId <= MAXIMUM_REVOCATIONS * 10; voterId++) {
+            voterIds.add(voterId);
+        }
+        signedTokenService.revokeAll(voterIds);
+        signedTokenService.revoke(50L);
+
+        Assert.assertTrue(signedTokenService.isRevoked(deleted));
+        Assert.assertFalse(signedTokenService.isRevoked(other));
+    }
+
+    private String issue(Long voterId) {
+        Voter voter = VoterBuilder.getVoter();
+        voter.setId(voterId);
+        return signedTokenService.issue(voter, new Date(System.currentTimeMillis() + 60000));
+    }
+}
@@ -0,0 +1,47 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.repository.TokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class TokenReaperTest {
+
+    private TokenRepository tokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenReaper tokenReaper;
+
+    @Before
+    public void setUp() {
+        tokenRepository = Mockito.mock(TokenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenReaper = new TokenReaper(tokenRepository, 10, 3, meterRegistry);
+    }
+
+    @Test
+    public void shouldDeleteUntilBatchIsNotFull() {
+        Mockito.when(tokenRepository.deleteExpired(any(Date.class), eq(10))).thenReturn(10, 4);
+
+        Assert.assertEquals(14, tokenReaper.reap());
+        Mockito.verify(tokenRepository, Mockito.times(2)).deleteExpired(any(Date.class), eq(10));
+        Assert.assertEquals(14.0, meterRegistry.get("token.reaper.reclaimed").counter().count(), 0.0);
+    }
+
+    @Test
+    public void shouldStopAtMaxBatchesPerRun() {
+        Mockito.when(tokenRepository.deleteExpired(any(Date.class), eq(10))).thenReturn(10);
+
+        Assert.assertEquals(30, tokenReaper.reap());
+        Mockito.verify(tokenRepository, Mockito.times(3)).deleteExpired(any(Date.class), eq(10));
+        Assert.assertEquals(1, meterRegistry.get("token.reaper.run").summary().count());
+    }
+}
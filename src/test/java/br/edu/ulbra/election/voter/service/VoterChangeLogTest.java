@@ -0,0 +1,97 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.output.v1.VoterChangeOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterChangePageOutput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class VoterChangeLogTest {
+
+    private VoterChangeLog voterChangeLog;
+
+    @Before
+    public void setUp() {
+        voterChangeLog = new VoterChangeLog(3, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldReadChangesAfterSequence() {
+        voterChangeLog.append(VoterChangeOutput.Type.CREATED, VoterBuilder.getVoterOutput());
+        voterChangeLog.append(VoterChangeOutput.Type.UPDATED, VoterBuilder.getVoterOutput());
+
+        VoterChangePageOutput page = voterChangeLog.read(1, 10);
+        Assert.assertFalse(page.isSnapshotRequired());
+        Assert.assertEquals(1, page.getChanges().size());
+        Assert.assertEquals(VoterChangeOutput.Type.UPDATED, page.getChanges().get(0).getType());
+        Assert.assertEquals(2, page.getLastSequence());
+        Assert.assertTrue(voterChangeLog.read(2, 10).getChanges().isEmpty());
+    }
+
+    @Test
+    public void shouldRequireSnapshotWhenOverwritten() {
+        for (int i = 0; i < 5; i++) {
+            voterChangeLog.append(VoterChangeOutput.Type.UPDATED, VoterBuilder.getVoterOutput());
+        }
+        Assert.assertTrue(voterChangeLog.read(1, 10).isSnapshotRequired());
+        Assert.assertEquals(3, voterChangeLog.read(2, 10).getChanges().size());
+    }
+
+    @Test
+    public void shouldRequireSnapshotAfterReset() {
+        voterChangeLog.append(VoterChangeOutput.Type.CREATED, VoterBuilder.getVoterOutput());
+        voterChangeLog.reset();
+
+        VoterChangePageOutput page = voterChangeLog.read(1, 10);
+        Assert.assertTrue(page.isSnapshotRequired());
+        Assert.assertFalse(voterChangeLog.read(page.getLastSequence(), 10).isSnapshotRequired());
+    }
+
+    @Test
+    public void shouldOnlyBlockWritesToTheSameVoter() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            writers.submit(() -> voterChangeLog.inOrder(Collections.singleton(1L), () -> {
+                holding.countDown();
+                awaitQuietly(release);
+                return null;
+            }));
+            Assert.assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            Assert.assertEquals("other", voterChangeLog.inOrder(Collections.singleton(2L), () -> "other"));
+            Future<String> same = writers.submit(() -> voterChangeLog.inOrder(Arrays.asList(2L, 1L), () -> "same"));
+            try {
+                same.get(200, TimeUnit.MILLISECONDS);
+                Assert.fail();
+            } catch (TimeoutException e) {
+                // voter 1 is still held
+            }
+            release.countDown();
+            Assert.assertEquals("same", same.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            writers.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
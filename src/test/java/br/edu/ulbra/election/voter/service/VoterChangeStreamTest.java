@@ -0,0 +1,248 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.api.v1.VoterApi;
+import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.output.v1.VoterChangeOutput;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class VoterChangeStreamTest {
+
+    private static final long SEND_TIMEOUT_MILLIS = 200;
+
+    private MeterRegistry meterRegistry;
+
+    private VoterChangeLog voterChangeLog;
+
+    private VoterChangeStream voterChangeStream;
+
+    // emitters handed out to the next subscribe calls, in order
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        voterChangeLog = new VoterChangeLog(3, meterRegistry);
+        voterChangeStream = new VoterChangeStream(voterChangeLog, meterRegistry, 60000, 2, 2, SEND_TIMEOUT_MILLIS) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                return emitters.removeFirst();
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        voterChangeStream.shutdown();
+    }
+
+    @Test
+    public void shouldResumeAfterLastEventId() throws Exception {
+        append(3);
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+
+        voterChangeStream.subscribe(1);
+        Assert.assertEquals("id:2", emitter.nextId());
+        Assert.assertEquals("id:3", emitter.nextId());
+
+        append(1);
+        Assert.assertEquals("id:4", emitter.nextId());
+        Assert.assertFalse(emitter.completed.await(0, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1.0, subscribers(), 0.0);
+    }
+
+    @Test
+    public void shouldRequireSnapshotWhenResumingFromOverwrittenSequence() throws Exception {
+        append(5);
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+
+        voterChangeStream.subscribe(1);
+        String event = emitter.events.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(event);
+        Assert.assertTrue(event, event.contains("event:" + VoterChangeStream.EVENT_SNAPSHOT_REQUIRED));
+        Assert.assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0.0, subscribers(), 0.0);
+    }
+
+    @Test
+    public void shouldRemoveSubscriberWhenClientDisconnects() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        emitters.add(emitter);
+        voterChangeStream.subscribe(0);
+        Assert.assertEquals(1.0, subscribers(), 0.0);
+
+        append(1);
+        Assert.assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0.0, subscribers(), 0.0);
+    }
+
+    @Test
+    public void shouldDropBlockedClientWithoutStallingOthers() throws Exception {
+        // one sender, so the healthy client only hears of the change if the blocked write's sender is replaced
+        voterChangeStream.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        voterChangeStream = new VoterChangeStream(voterChangeLog, meterRegistry, 60000, 2, 1, SEND_TIMEOUT_MILLIS);
+        VoterApi voterApi = new VoterApi(Mockito.mock(VoterService.class), Mockito.mock(VoterImportService.class), voterChangeStream,
+                Mockito.mock(VoterExportService.class), Mockito.mock(ExecutorService.class), 60000);
+        CountDownLatch release = new CountDownLatch(1);
+        MockMvc blockedClient = MockMvcBuilders.standaloneSetup(voterApi).addFilters(new NeverDrainingFilter(release)).build();
+        MockMvc healthyClient = MockMvcBuilders.standaloneSetup(voterApi).build();
+
+        try {
+            MvcResult blocked = blockedClient.perform(get("/v1/voter/changes/stream"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MvcResult healthy = healthyClient.perform(get("/v1/voter/changes/stream"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            append(1);
+            awaitContent(healthy, "id:1");
+            // the watchdog dropped the blocked client without waiting for the emitter monitor its write holds
+            awaitSubscribers(1);
+            Assert.assertEquals(1, release.getCount());
+
+            append(1);
+            awaitContent(healthy, "id:2");
+
+            // the connector's write timeout finally fails the blocked write, and its sender goes back to the pool
+            release.countDown();
+            Assert.assertTrue(blocked.getResponse().getContentAsString().isEmpty());
+            append(1);
+            awaitContent(healthy, "id:3");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void append(int count) {
+        for (int i = 0; i < count; i++) {
+            voterChangeLog.append(VoterChangeOutput.Type.UPDATED, VoterBuilder.getVoterOutput());
+        }
+    }
+
+    private void awaitSubscribers(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && subscribers() != count; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, subscribers(), 0.0);
+    }
+
+    private static void awaitContent(MvcResult mvcResult, String content) throws Exception {
+        for (int i = 0; i < 500 && !mvcResult.getResponse().getContentAsString().contains(content); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(mvcResult.getResponse().getContentAsString().contains(content));
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("voter.changes.subscribers").gauge().value();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder event = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof String) {
+                    event.append(data.getData());
+                }
+            }
+            events.add(event.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private String nextId() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull("no event delivered", event);
+            return event.substring(0, event.indexOf('\n'));
+        }
+    }
+
+    // a client that stopped reading: every write blocks until the test releases it, then fails like a timed out socket
+    private static class NeverDrainingFilter extends OncePerRequestFilter {
+
+        private final CountDownLatch release;
+
+        private NeverDrainingFilter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            ServletOutputStream outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IOException("Socket write timed out");
+                }
+
+                @Override
+                public boolean isReady() {
+                    return false;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                }
+            };
+            chain.doFilter(request, new HttpServletResponseWrapper(response) {
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return outputStream;
+                }
+            });
+        }
+    }
+}
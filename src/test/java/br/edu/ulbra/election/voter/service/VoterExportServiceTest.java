@@ -0,0 +1,63 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+
+public class VoterExportServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VoterExportService voterExportService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        VoterJdbcRepository voterJdbcRepository = Mockito.mock(VoterJdbcRepository.class);
+        Mockito.doAnswer(invocation -> {
+            Consumer<VoterOutput> consumer = invocation.getArgument(0);
+            consumer.accept(VoterBuilder.getVoterOutput());
+            VoterOutput quoted = VoterBuilder.getVoterOutput();
+            quoted.setId(2L);
+            quoted.setName("Doe, \"John\"");
+            consumer.accept(quoted);
+            return null;
+        }).when(voterJdbcRepository).forEach(any());
+        meterRegistry = new SimpleMeterRegistry();
+        voterExportService = new VoterExportService(voterJdbcRepository, meterRegistry);
+    }
+
+    @Test
+    public void shouldExportCsv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Assert.assertEquals(2, voterExportService.exportCsv(out, false));
+        Assert.assertEquals("id,email,name\n1,test@test.com,Voter Name\n2,test@test.com,\"Doe, \"\"John\"\"\"\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals(2.0, meterRegistry.get("voter.export.rows").counter().count(), 0.0);
+    }
+
+    @Test
+    public void shouldExportGzippedCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        voterExportService.exportCsv(out, true);
+
+        String csv = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8);
+        Assert.assertTrue(csv.startsWith("id,email,name\n1,test@test.com,Voter Name\n"));
+    }
+}
@@ -0,0 +1,196 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.exception.ServiceUnavailableException;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.output.v1.VoterImportOutput;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+
+public class VoterImportServiceTest {
+
+    private static final String PASSWORD = "12345678";
+
+    private VoterJdbcRepository voterJdbcRepository;
+
+    private VoterChangeLog voterChangeLog;
+
+    private PasswordEncoder passwordEncoder;
+
+    private VoterImportService voterImportService;
+
+    // every insertAll call, one list per call
+    private final List<List<String>> inserts = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        voterJdbcRepository = Mockito.mock(VoterJdbcRepository.class);
+        voterChangeLog = Mockito.mock(VoterChangeLog.class);
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        given(passwordEncoder.encode(any())).willAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+        given(voterJdbcRepository.findExistingEmails(anyCollection()))
+                .willReturn(Collections.emptySet());
+        Mockito.doAnswer(invocation -> {
+            List<Voter> voters = invocation.getArgument(0);
+            inserts.add(voters.stream().map(Voter::getEmail).collect(Collectors.toList()));
+            return null;
+        }).when(voterJdbcRepository).insertAll(any());
+        voterImportService = new VoterImportService(voterJdbcRepository, voterChangeLog, Mockito.mock(PlatformTransactionManager.class),
+                new ObjectMapper(), passwordEncoder, 3, 1, 0);
+    }
+
+    @After
+    public void tearDown() {
+        voterImportService.shutdown();
+    }
+
+    @Test
+    public void shouldImportCsv() {
+        VoterImportOutput output = importVoters(VoterImportService.Format.CSV,
+                "email,name,password",
+                "a@test.com,Voter Name," + PASSWORD,
+                "",
+                "b@test.com,\"Doe, \"\"John\"\"\"," + PASSWORD,
+                "c@test.com,\"Voter Name",
+                "Second Line\",\"" + PASSWORD + "\"");
+
+        Assert.assertEquals(3, output.getReceived());
+        Assert.assertEquals(3, output.getImported());
+        Assert.assertEquals(0, output.getFailed());
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("a@test.com", "b@test.com", "c@test.com")), inserts);
+        Mockito.verify(voterChangeLog).reset();
+    }
+
+    @Test
+    public void shouldReportInvalidRows() {
+        VoterImportOutput output = importVoters(VoterImportService.Format.CSV,
+                "a@test.com,Voter Name",
+                "b@test.com,Voter \"Name\"," + PASSWORD,
+                "c@test.com,Voter,Name," + PASSWORD,
+                ",Voter Name," + PASSWORD,
+                "d@test.com,\"Voter Name");
+
+        Assert.assertEquals(5, output.getReceived());
+        Assert.assertEquals(0, output.getImported());
+        Assert.assertEquals(5, output.getFailed());
+        Assert.assertEquals(Arrays.asList("Invalid row", "Invalid row", "Invalid row", "Invalid email", "Invalid row"),
+                output.getErrors().stream().map(error -> error.getMessage()).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L),
+                output.getErrors().stream().map(error -> error.getLine()).collect(Collectors.toList()));
+        Assert.assertEquals(0.0, output.getRowsPerSecond(), 0.0);
+        Mockito.verify(voterChangeLog, Mockito.never()).reset();
+    }
+
+    @Test
+    public void shouldImportNdjson() {
+        VoterImportOutput output = importVoters(VoterImportService.Format.NDJSON,
+                "{\"email\":\"a@test.com\",\"name\":\"Voter Name\",\"password\":\"" + PASSWORD + "\"}",
+                "{\"email\":",
+                "{\"email\":\"b@test.com\",\"name\":\"Voter\",\"password\":\"" + PASSWORD + "\"}");
+
+        Assert.assertEquals(3, output.getReceived());
+        Assert.assertEquals(1, output.getImported());
+        Assert.assertEquals(2, output.getFailed());
+        Assert.assertEquals("Invalid row", output.getErrors().get(0).getMessage());
+        Assert.assertEquals("Invalid name", output.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    public void shouldRejectDuplicatesInBatchAndDatabase() {
+        given(voterJdbcRepository.findExistingEmails(anyCollection()))
+                .willReturn(Collections.singleton("b@test.com"));
+
+        VoterImportOutput output = importVoters(VoterImportService.Format.CSV,
+                "a@test.com,Voter Name," + PASSWORD,
+                "B@test.com,Voter Name," + PASSWORD,
+                "A@Test.com,Voter Name," + PASSWORD);
+
+        Assert.assertEquals(3, output.getReceived());
+        Assert.assertEquals(1, output.getImported());
+        Assert.assertEquals(2, output.getFailed());
+        Assert.assertEquals(2L, output.getErrors().get(0).getLine());
+        Assert.assertEquals(VoterService.MESSAGE_DUPLICATE_EMAIL, output.getErrors().get(0).getMessage());
+        Assert.assertEquals(3L, output.getErrors().get(1).getLine());
+        Assert.assertEquals(VoterService.MESSAGE_DUPLICATE_EMAIL, output.getErrors().get(1).getMessage());
+        Assert.assertEquals(Collections.singletonList(Collections.singletonList("a@test.com")), inserts);
+    }
+
+    @Test
+    public void shouldInsertOneByOneWhenBatchViolatesConstraint() {
+        // another writer took b@test.com after the duplicate check
+        Mockito.doAnswer(invocation -> {
+            List<Voter> voters = invocation.getArgument(0);
+            List<String> emails = voters.stream().map(Voter::getEmail).collect(Collectors.toList());
+            if (emails.contains("b@test.com")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            inserts.add(emails);
+            return null;
+        }).when(voterJdbcRepository).insertAll(any());
+
+        VoterImportOutput output = importVoters(VoterImportService.Format.CSV,
+                "a@test.com,Voter Name," + PASSWORD,
+                "b@test.com,Voter Name," + PASSWORD,
+                "c@test.com,Voter Name," + PASSWORD,
+                "d@test.com,Voter Name," + PASSWORD);
+
+        Assert.assertEquals(4, output.getReceived());
+        Assert.assertEquals(3, output.getImported());
+        Assert.assertEquals(1, output.getFailed());
+        Assert.assertEquals(2L, output.getErrors().get(0).getLine());
+        Assert.assertEquals(VoterService.MESSAGE_DUPLICATE_EMAIL, output.getErrors().get(0).getMessage());
+        Assert.assertEquals(Arrays.asList(Collections.singletonList("a@test.com"), Collections.singletonList("c@test.com"),
+                Collections.singletonList("d@test.com")), inserts);
+    }
+
+    @Test
+    public void shouldReportRowsRejectedByHashingPool() {
+        given(passwordEncoder.encode("rejected")).willThrow(new ServiceUnavailableException("Password hashing capacity exceeded"));
+
+        VoterImportOutput output = importVoters(VoterImportService.Format.CSV,
+                "a@test.com,Voter Name," + PASSWORD,
+                "b@test.com,Voter Name,rejected",
+                "c@test.com,Voter Name," + PASSWORD);
+
+        Assert.assertEquals(2, output.getImported());
+        Assert.assertEquals(1, output.getFailed());
+        Assert.assertEquals(2L, output.getErrors().get(0).getLine());
+        Assert.assertEquals("Password hashing capacity exceeded", output.getErrors().get(0).getMessage());
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("a@test.com", "c@test.com")), inserts);
+        Mockito.verify(passwordEncoder, Mockito.times(3)).encode(any());
+    }
+
+    @Test
+    public void shouldParseCsvRecord() {
+        Assert.assertEquals(Arrays.asList("a", "", "b,c", "d\"e", "f\ng"),
+                VoterImportService.parseCsvRecord("a,,\"b,c\",\"d\"\"e\",\"f\ng\""));
+        Assert.assertEquals(Arrays.asList("", ""), VoterImportService.parseCsvRecord(","));
+        Assert.assertNull(VoterImportService.parseCsvRecord("\"a\"b,c"));
+        Assert.assertNull(VoterImportService.parseCsvRecord("a\"b,c"));
+        Assert.assertNull(VoterImportService.parseCsvRecord("\"a,b"));
+    }
+
+    private VoterImportOutput importVoters(VoterImportService.Format format, String... lines) {
+        byte[] content = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return voterImportService.importVoters(new ByteArrayInputStream(content), format);
+    }
+}
@@ -0,0 +1,114 @@
+package br.edu.ulbra.election.voter.service;
+
+import br.edu.ulbra.election.voter.VoterApplication;
+import br.edu.ulbra.election.voter.client.VoteClientService;
+import br.edu.ulbra.election.voter.exception.GenericOutputException;
+import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.model.Voter;
+import br.edu.ulbra.election.voter.repository.VoterJdbcRepository;
+import br.edu.ulbra.election.voter.repository.VoterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.mockito.ArgumentMatchers.anyString;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = VoterApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:duplicate-email;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.show_sql=false",
+        "scheduling.enabled=false"})
+public class VoterServiceDuplicateEmailTest {
+
+    private static final String PASSWORD = "12345678";
+
+    @Autowired
+    private VoterService voterService;
+
+    @Autowired
+    private VoterRepository voterRepository;
+
+    @Autowired
+    private VoterJdbcRepository voterJdbcRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private VoteClientService voteClientService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoginService loginService;
+
+    @Autowired
+    private VoterChangeLog voterChangeLog;
+
+    @Test
+    public void shouldRejectDuplicateEmailVariants() {
+        voterService.create(voterInput("duplicate@test.com"));
+
+        for (String email : new String[]{"duplicate@test.com", "DUPLICATE@Test.COM", "  duplicate@test.com\t"}) {
+            try {
+                voterService.create(voterInput(email));
+                Assert.fail(email);
+            } catch (GenericOutputException e) {
+                Assert.assertEquals(VoterService.MESSAGE_DUPLICATE_EMAIL, e.getMessage());
+            }
+        }
+        Assert.assertTrue(voterRepository.existsByEmailNormalized("duplicate@test.com"));
+        Assert.assertFalse(voterRepository.existsByEmailNormalized("DUPLICATE@test.com"));
+    }
+
+    @Test
+    public void shouldEnforceUniqueNormalizedEmailInDatabase() {
+        voterService.create(voterInput("unique@test.com"));
+
+        Voter voter = new Voter();
+        voter.setEmail(" Unique@Test.com ");
+        voter.setName("Other Voter");
+        voter.setPassword(PASSWORD);
+        try {
+            voterRepository.save(voter);
+            Assert.fail();
+        } catch (DataIntegrityViolationException e) {
+            // ux_voter_email_normalized
+        }
+    }
+
+    @Test
+    public void shouldReportDuplicateWhenCheckLosesRace() {
+        voterService.create(voterInput("race@test.com"));
+        // the real repository, except that the exists check runs before the other voter commits
+        VoterRepository racingRepository = Mockito.mock(VoterRepository.class, AdditionalAnswers.delegatesTo(voterRepository));
+        Mockito.doReturn(false).when(racingRepository).existsByEmailNormalized(anyString());
+        VoterService racingService = new VoterService(racingRepository, voterJdbcRepository, passwordEncoder, voteClientService,
+                objectMapper, loginService, voterChangeLog);
+
+        try {
+            racingService.create(voterInput("Race@test.com"));
+            Assert.fail();
+        } catch (GenericOutputException e) {
+            Assert.assertEquals(VoterService.MESSAGE_DUPLICATE_EMAIL, e.getMessage());
+        }
+    }
+
+    private VoterInput voterInput(String email) {
+        VoterInput voterInput = new VoterInput();
+        voterInput.setEmail(email);
+        voterInput.setName("Duplicate Voter");
+        voterInput.setPassword(PASSWORD);
+        voterInput.setPasswordConfirm(PASSWORD);
+        return voterInput;
+    }
+}
@@ -2,10 +2,13 @@ package br.edu.ulbra.election.voter.service;
 
 import br.edu.ulbra.election.voter.TestConfig;
 import br.edu.ulbra.election.voter.builder.VoterBuilder;
+import br.edu.ulbra.election.voter.client.VoteClientService;
 import br.edu.ulbra.election.voter.exception.GenericOutputException;
 import br.edu.ulbra.election.voter.input.v1.VoterInput;
+import br.edu.ulbra.election.voter.model.Voter;
 import br.edu.ulbra.election.voter.output.v1.GenericOutput;
 import br.edu.ulbra.election.voter.output.v1.VoterOutput;
+import br.edu.ulbra.election.voter.output.v1.VoterPageOutput;
 import br.edu.ulbra.election.voter.repository.VoterRepository;
 import org.junit.Assert;
 import org.junit.Test;
@@ -20,11 +23,18 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Mockito.doNothing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(VoterService.class)
@@ -35,6 +45,10 @@ public class VoterServiceTest {
     @MockBean
     private VoterRepository voterRepository;
 
+    // unstubbed, so no voter has voted
+    @MockBean
+    private VoteClientService voteClientService;
+
     @Autowired
     private VoterService voterService;
 
@@ -54,6 +68,49 @@ public class VoterServiceTest {
         Assert.assertEquals(1, voterOutputList.size());
     }
 
+    @Test
+    public void shouldReturnLastPageWithoutCursor(){
+        given(voterRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .willReturn(VoterBuilder.getVoterList());
+        VoterPageOutput voterPageOutput = voterService.getPage(null, 10);
+        Assert.assertEquals(1, voterPageOutput.getVoters().size());
+        Assert.assertNull(voterPageOutput.getNextCursor());
+    }
+
+    @Test
+    public void shouldReturnPageWithCursor(){
+        given(voterRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .willReturn(VoterBuilder.getVoterList());
+        VoterPageOutput voterPageOutput = voterService.getPage(0L, 1);
+        Assert.assertEquals((Long)1L, voterPageOutput.getNextCursor());
+    }
+
+    @Test(expected = GenericOutputException.class)
+    public void shouldFailPageInvalidSize(){
+        voterService.getPage(null, 0);
+    }
+
+    @Test
+    public void shouldSearchByNamePrefix(){
+        given(voterRepository.searchByNamePrefix(eq("voter%"), any()))
+                .willReturn(VoterBuilder.getVoterList());
+        List<VoterOutput> voterOutputList = voterService.search(" Voter", null, null, null);
+        Assert.assertEquals(1, voterOutputList.size());
+    }
+
+    @Test
+    public void shouldSearchByNameContainingEscaped(){
+        given(voterRepository.searchByNameContaining(eq("%100!%%"), any()))
+                .willReturn(VoterBuilder.getVoterList());
+        List<VoterOutput> voterOutputList = voterService.search("100%", "contains", 0, 10);
+        Assert.assertEquals(1, voterOutputList.size());
+    }
+
+    @Test(expected = GenericOutputException.class)
+    public void shouldFailSearchEmptyName(){
+        voterService.search(" ", null, null, null);
+    }
+
     @Test(expected = GenericOutputException.class)
     public void shouldFailGetByIdNotFound(){
         given(voterRepository.findById(anyLong()))
@@ -208,6 +265,83 @@ public class VoterServiceTest {
         Assert.assertEquals(voterInput.getEmail(), voterOutput.getEmail());
     }
 
+    @Test
+    public void shouldAppendConcurrentUpdatesInCommitOrder() throws Exception {
+        CountDownLatch firstCommitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(voterRepository.findById(anyLong()))
+                .willAnswer(invocation -> Optional.of(VoterBuilder.getVoter()));
+        given(voterRepository.save(any())).willAnswer(invocation -> {
+            Voter voter = invocation.getArgument(0);
+            if ("First Name".equals(voter.getName())) {
+                // committed, but the change is not appended yet
+                firstCommitted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return voter;
+        });
+        long after = voterService.getChangeSequence();
+
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            Future<VoterOutput> first = writers.submit(() -> voterService.update(1L, namedInput("First Name")));
+            Assert.assertTrue(firstCommitted.await(5, TimeUnit.SECONDS));
+            Future<VoterOutput> second = writers.submit(() -> voterService.update(1L, namedInput("Second Name")));
+            try {
+                second.get(200, TimeUnit.MILLISECONDS);
+                Assert.fail("second update committed while the first was not appended");
+            } catch (TimeoutException e) {
+                // waits for the first update's lock
+            }
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            writers.shutdownNow();
+        }
+
+        List<String> names = voterService.getChanges(after, 10).getChanges().stream()
+                .map(change -> change.getVoter().getName())
+                .collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("First Name", "Second Name"), names);
+    }
+
+    private static VoterInput namedInput(String name){
+        VoterInput voterInput = VoterBuilder.getVoterInput();
+        voterInput.setName(name);
+        voterInput.setPassword(null);
+        return voterInput;
+    }
+
+    @Test(expected = GenericOutputException.class)
+    public void shouldFailPatchNothingToUpdate(){
+        voterService.patch(1L, new VoterInput());
+    }
+
+    @Test(expected = GenericOutputException.class)
+    public void shouldFailPatchDuplicateEmail(){
+        VoterInput voterInput = new VoterInput();
+        voterInput.setEmail("other@test.com");
+        given(voterRepository.patch(eq(1L), eq("other@test.com"), isNull(), isNull()))
+                .willReturn(0);
+        given(voterRepository.existsById(1L))
+                .willReturn(true);
+        voterService.patch(1L, voterInput);
+    }
+
+    @Test
+    public void shouldPatchName(){
+        VoterInput voterInput = new VoterInput();
+        voterInput.setName("Voter Name");
+        given(voterRepository.patch(eq(1L), isNull(), eq("Voter Name"), isNull()))
+                .willReturn(1);
+        given(voterRepository.findById(anyLong()))
+                .willReturn(Optional.of(VoterBuilder.getVoter()));
+        VoterOutput voterOutput = voterService.patch(1L, voterInput);
+        Assert.assertEquals(voterInput.getName(), voterOutput.getName());
+    }
+
     @Test(expected = GenericOutputException.class)
     public void shouldFailDeleteVoterIdNull(){
         voterService.delete(null);
@@ -215,16 +349,20 @@ public class VoterServiceTest {
 
     @Test(expected = GenericOutputException.class)
     public void shouldFailDeleteIdNotFound(){
-        given(voterRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(voterRepository.removeById(anyLong()))
+                .willReturn(0);
         voterService.delete(1L);
     }
 
+    @Test(expected = GenericOutputException.class)
+    public void shouldFailDeleteAllEmptyList(){
+        voterService.deleteAll(new ArrayList<>());
+    }
+
     @Test
     public void shouldDelete(){
-        given(voterRepository.findById(anyLong()))
-                .willReturn(Optional.of(VoterBuilder.getVoter()));
-        doNothing().when(voterRepository).delete(any());
+        given(voterRepository.removeById(anyLong()))
+                .willReturn(1);
         GenericOutput genericOutput = voterService.delete(1L);
         Assert.assertEquals("Voter deleted", genericOutput.getMessage());
     }